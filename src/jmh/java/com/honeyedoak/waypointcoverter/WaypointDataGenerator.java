@@ -0,0 +1,248 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2013 Pieter Van Eeckhout.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.honeyedoak.waypointcoverter;
+
+import com.honeyedoak.waypointcoverter.exceptions.InvalidModelStateException;
+import com.honeyedoak.waypointcoverter.model.Waypoint;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * WaypointDataGenerator.java (UTF-8)
+ *
+ * <p>Generates reproducible synthetic waypoints and waypoint files for the
+ * benchmarks, in the layouts written by BaseCamp, MapSource and the GPX
+ * exports. The same seed always gives the same data.</p>
+ *
+ * <p>Large files can also be generated from the command line:
+ * <code>WaypointDataGenerator &lt;gpx|basecamp|mapsource-digits|mapsource-degrees&gt;
+ * &lt;count&gt; &lt;file&gt;</code></p>
+ *
+ * 2026/10/17
+ *
+ * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
+ * @since 2.0.0
+ * @version 2.0.0
+ */
+public class WaypointDataGenerator {
+
+    public static final long DEFAULT_SEED = 688432065L;
+    private static final String BASECAMP_HEADER = "\uFEFF\n"
+            + "metadata\n"
+            + "ID\tname\tdesc\ttime\tkeywords\tminlat\tminlon\tmaxlat\tmaxlon\t\n"
+            + "1\t\t\t2013-06-20T14:54:09Z\t\t-90\t-180\t90\t180\t\n"
+            + "\n"
+            + "wpt\n"
+            + "ID\tlat\tlon\tele\ttime\tmagvar\tgeoidheight\tname\tcmt\tdesc\tsrc\tsym\ttype\tfix\tsat\thdop\tvdop\tpdop\tageofdgpsdata\tdgpsid\tProximity\tTemperature\tDepth\tDisplayMode\tSamples\tExpiration\t\n";
+    private static final String MAPSOURCE_DIGITS_GRID = "Grid\tLengte/Breedte hddd.ddddd\u00B0\n";
+    private static final String MAPSOURCE_DEGREES_GRID = "Grid\tLengte/Breedte hddd\u00B0mm.mmm'\n";
+    private static final String MAPSOURCE_HEADER = "Datum\tWGS 84\n"
+            + "\n"
+            + "Header\tName\tDescription\tType\tPosition\tAltitude\tDepth\tProximity\tTemperature\tDisplay Mode\tColor\tSymbol\tFacility\tCity\tState\tCountry\tDate Modified\tLink\tCategories\n"
+            + "\n";
+
+    private final Random random;
+    private int sequence;
+
+    public WaypointDataGenerator() {
+        this(DEFAULT_SEED);
+    }
+
+    public WaypointDataGenerator(long seed) {
+        random = new Random(seed);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("usage: WaypointDataGenerator <gpx|basecamp|mapsource-digits|mapsource-degrees> <count> <file>");
+            System.exit(2);
+        }
+        new WaypointDataGenerator().writeFile(args[0], Integer.parseInt(args[1]), Paths.get(args[2]));
+    }
+
+    /**
+     * Writes a file in one of the supported formats.
+     *
+     * @param format gpx, basecamp, mapsource-digits or mapsource-degrees
+     * @param count the number of waypoints in the file
+     * @param path the file to write
+     */
+    public void writeFile(String format, int count, Path path) throws IOException {
+        switch (format) {
+            case "gpx":
+                writeGpxFile(path, count);
+                break;
+            case "basecamp":
+                writeBasecampTxtFile(path, count);
+                break;
+            case "mapsource-digits":
+                writeMapsourceTxtFile(path, count, false);
+                break;
+            case "mapsource-degrees":
+                writeMapsourceTxtFile(path, count, true);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown format " + format);
+        }
+    }
+
+    public List<Waypoint> waypoints(int count) {
+        List<Waypoint> waypoints = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            waypoints.add(waypoint());
+        }
+        return waypoints;
+    }
+
+    public Waypoint waypoint() {
+        try {
+            return new Waypoint(name(), random.nextDouble() * 180, random.nextBoolean(), random.nextDouble() * 90, random.nextBoolean());
+        } catch (InvalidModelStateException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return a unique waypoint name
+     */
+    public String name() {
+        return "waypoint " + (sequence++);
+    }
+
+    /**
+     * @return a waypoint line of a BaseCamp .txt export
+     */
+    public String basecampLine() {
+        return basecampLine('\t');
+    }
+
+    /**
+     * @return a waypoint line of a BaseCamp .csv export
+     */
+    public String basecampCsvLine() {
+        return basecampLine(',');
+    }
+
+    private String basecampLine(char separator) {
+        StringBuilder builder = new StringBuilder(160);
+        builder.append(sequence).append(separator)
+                .append(signedDegrees(90)).append(separator)
+                .append(signedDegrees(180)).append(separator)
+                .append(separator)
+                .append("2013-06-20T14:52:15Z").append(separator)
+                .append(separator)
+                .append(separator)
+                .append('"').append(name()).append('"').append(separator)
+                .append("\"comment\"").append(separator)
+                .append("\"description\"").append(separator)
+                .append(separator)
+                .append("\"Flag, Blue\"").append(separator)
+                .append("\"user\"");
+        for (int i = 0; i < 10; i++) {
+            builder.append(separator);
+        }
+        builder.append("SymbolAndName").append(separator).append(separator).append(separator);
+        return builder.toString();
+    }
+
+    /**
+     * @param degrees true for the hddd mm.mmm layout, false for hddd.ddddd
+     * @return a waypoint line of a MapSource .txt export
+     */
+    public String mapsourceLine(boolean degrees) {
+        double latitude = random.nextDouble() * 90;
+        double longitude = random.nextDouble() * 180;
+        String position;
+        if (degrees) {
+            position = String.format(Locale.ROOT, "%s%d %06.3f %s%d %06.3f",
+                    random.nextBoolean() ? "N" : "S", (int) latitude, (latitude % 1) * 60,
+                    random.nextBoolean() ? "E" : "W", (int) longitude, (longitude % 1) * 60);
+        } else {
+            position = String.format(Locale.ROOT, "%s%.5f %s%.5f",
+                    random.nextBoolean() ? "N" : "S", latitude,
+                    random.nextBoolean() ? "E" : "W", longitude);
+        }
+        return "Waypoint\t" + name() + "\tdescription\tUser Waypoint\t" + position + "\t\t\t\t\tSymbol & Name\tUnknown\tFlag, Blue\t\t\t\t\t6/20/2013 2:43:09 PM \t\t";
+    }
+
+    public void writeGpxFile(Path path, int count) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\" ?>\n");
+            writer.write("<gpx xmlns=\"http://www.topografix.com/GPX/1/1\" creator=\"WaypointDataGenerator\" version=\"1.1\">\n");
+            for (int i = 0; i < count; i++) {
+                writer.write("  <wpt lat=\"" + signedDegrees(90) + "\" lon=\"" + signedDegrees(180) + "\">\n");
+                writer.write("    <time>2013-06-20T14:46:23Z</time>\n");
+                writer.write("    <name>" + name() + "</name>\n");
+                writer.write("    <cmt>comment</cmt>\n");
+                writer.write("    <sym>Flag, Blue</sym>\n");
+                writer.write("    <extensions>\n");
+                writer.write("      <gpxx:WaypointExtension xmlns:gpxx=\"http://www.garmin.com/xmlschemas/GpxExtensions/v3\">\n");
+                writer.write("        <gpxx:DisplayMode>SymbolAndName</gpxx:DisplayMode>\n");
+                writer.write("      </gpxx:WaypointExtension>\n");
+                writer.write("    </extensions>\n");
+                writer.write("  </wpt>\n");
+            }
+            writer.write("</gpx>\n");
+        }
+    }
+
+    public void writeBasecampTxtFile(Path path, int count) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writer.write(BASECAMP_HEADER);
+            for (int i = 0; i < count; i++) {
+                writer.write(basecampLine());
+                writer.write('\n');
+            }
+            writer.write('\n');
+        }
+    }
+
+    public void writeMapsourceTxtFile(Path path, int count, boolean degrees) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.ISO_8859_1)) {
+            writer.write(degrees ? MAPSOURCE_DEGREES_GRID : MAPSOURCE_DIGITS_GRID);
+            writer.write(MAPSOURCE_HEADER);
+            for (int i = 0; i < count; i++) {
+                writer.write(mapsourceLine(degrees));
+                writer.write('\n');
+            }
+        }
+    }
+
+    /**
+     * @return a coordinate with the 15 to 17 significant digits BaseCamp writes
+     */
+    private String signedDegrees(double maximum) {
+        return Double.toString((random.nextDouble() * 2 - 1) * maximum);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2013 Pieter Van Eeckhout.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.honeyedoak.waypointcoverter.controller.file;
+
+import com.honeyedoak.waypointcoverter.WaypointDataGenerator;
+import com.honeyedoak.waypointcoverter.exceptions.InvalidModelStateException;
+import com.honeyedoak.waypointcoverter.exceptions.ParseException;
+import com.honeyedoak.waypointcoverter.model.Waypoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * FileControllerBenchmark.java (UTF-8)
+ *
+ * <p>Measures exporting generated waypoints to an Opel waypoint file, and to
+ * Opel waypoint files split by one degree tiles of at most 10000
+ * waypoints, and saving and restoring them as a binary snapshot.</p>
+ *
+ * 2026/10/17
+ *
+ * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
+ * @since 2.0.0
+ * @version 2.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FileControllerBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int count;
+    private List<Waypoint> waypoints;
+    private FileController fileController;
+    private Path file;
+    private Path shardDirectory;
+    private Path snapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InvalidModelStateException, IOException {
+        waypoints = new WaypointDataGenerator().waypoints(count);
+        fileController = new FileController();
+        file = Files.createTempFile("opel", ".txt");
+        shardDirectory = Files.createTempDirectory("opel");
+        snapshot = Files.createTempFile("waypoints", ".wpts");
+        fileController.writeSnapshot(snapshot.toString(), waypoints, true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(snapshot);
+        try (Stream<Path> shards = Files.list(shardDirectory)) {
+            for (Path shard : (Iterable<Path>) shards::iterator) {
+                Files.delete(shard);
+            }
+        }
+        Files.delete(shardDirectory);
+    }
+
+    @Benchmark
+    public void writeOpelWaypointsToFile() throws InvalidModelStateException, IOException {
+        fileController.writeOpelWaypointsToFile(file.toString(), waypoints, true);
+    }
+
+    @Benchmark
+    public Object writeOpelWaypointsToFiles() throws InvalidModelStateException, IOException, InterruptedException {
+        return fileController.writeOpelWaypointsToFiles(shardDirectory.resolve("opel.txt").toString(), waypoints, 1, 10000, true);
+    }
+
+    @Benchmark
+    public void writeSnapshot() throws InvalidModelStateException, IOException {
+        fileController.writeSnapshot(snapshot.toString(), waypoints, true);
+    }
+
+    @Benchmark
+    public Object readSnapshot() throws InvalidModelStateException, IOException, ParseException {
+        return fileController.readSnapshot(snapshot.toString());
+    }
+}
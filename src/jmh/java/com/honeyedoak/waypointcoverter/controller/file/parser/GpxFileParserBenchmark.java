@@ -0,0 +1,96 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2013 Pieter Van Eeckhout.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.honeyedoak.waypointcoverter.controller.file.parser;
+
+import com.honeyedoak.waypointcoverter.WaypointDataGenerator;
+import com.honeyedoak.waypointcoverter.exceptions.FileException;
+import com.honeyedoak.waypointcoverter.exceptions.ParseException;
+import com.honeyedoak.waypointcoverter.exceptions.ProcessingException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GpxFileParserBenchmark.java (UTF-8)
+ *
+ * <p>Measures parsing a generated GPX file, both collecting the waypoints in a
+ * list and streaming them to a sink. Run the 10M waypoint case explicitly
+ * with <code>-p count=10000000</code>, the file is about 4 GB.</p>
+ *
+ * 2026/10/17
+ *
+ * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
+ * @since 2.0.0
+ * @version 2.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GpxFileParserBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int count;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("waypoints", ".gpx");
+        new WaypointDataGenerator().writeGpxFile(file, count);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Object parseToList() throws Exception {
+        return new GpxFileParser().parseFile(file.toFile());
+    }
+
+    @Benchmark
+    public void parseToSink(Blackhole blackhole) throws FileException, ParseException, ProcessingException {
+        new GpxFileParser().parseFile(new File(file.toString()), blackhole::consume);
+    }
+}
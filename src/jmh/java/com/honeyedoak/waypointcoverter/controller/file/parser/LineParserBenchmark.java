@@ -0,0 +1,115 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2013 Pieter Van Eeckhout.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.honeyedoak.waypointcoverter.controller.file.parser;
+
+import com.honeyedoak.waypointcoverter.WaypointDataGenerator;
+import com.honeyedoak.waypointcoverter.exceptions.ParseException;
+import com.honeyedoak.waypointcoverter.model.Waypoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LineParserBenchmark.java (UTF-8)
+ *
+ * <p>Measures the time to parse a single line of the BaseCamp and MapSource
+ * text exports.</p>
+ *
+ * 2026/10/17
+ *
+ * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
+ * @since 2.0.0
+ * @version 2.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class LineParserBenchmark {
+
+    private static final int LINE_COUNT = 1024;
+    private String[] basecampTxtLines;
+    private String[] basecampCsvLines;
+    private String[] mapsourceDigitsLines;
+    private String[] mapsourceDegreesLines;
+    private BasecampLineParser basecampLineParser;
+    private MapsourceLineParser mapsourceDigitsLineParser;
+    private MapsourceLineParser mapsourceDegreesLineParser;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        WaypointDataGenerator generator = new WaypointDataGenerator();
+        basecampTxtLines = new String[LINE_COUNT];
+        basecampCsvLines = new String[LINE_COUNT];
+        mapsourceDigitsLines = new String[LINE_COUNT];
+        mapsourceDegreesLines = new String[LINE_COUNT];
+        for (int i = 0; i < LINE_COUNT; i++) {
+            basecampTxtLines[i] = generator.basecampLine();
+            basecampCsvLines[i] = generator.basecampCsvLine();
+            mapsourceDigitsLines[i] = generator.mapsourceLine(false);
+            mapsourceDegreesLines[i] = generator.mapsourceLine(true);
+        }
+        basecampLineParser = new BasecampLineParser();
+        //a MapSource parser keeps the coordinate format of the first line it parses
+        mapsourceDigitsLineParser = new MapsourceLineParser();
+        mapsourceDegreesLineParser = new MapsourceLineParser();
+    }
+
+    private int nextIndex() {
+        index = (index + 1) & (LINE_COUNT - 1);
+        return index;
+    }
+
+    @Benchmark
+    public Waypoint basecampTxt() throws ParseException {
+        return basecampLineParser.parseLine(basecampTxtLines[nextIndex()], "\\t");
+    }
+
+    @Benchmark
+    public Waypoint basecampCsv() throws ParseException {
+        return basecampLineParser.parseLine(basecampCsvLines[nextIndex()], ",");
+    }
+
+    @Benchmark
+    public Waypoint mapsourceDigits() throws ParseException {
+        return mapsourceDigitsLineParser.parseLine(mapsourceDigitsLines[nextIndex()], "\\t");
+    }
+
+    @Benchmark
+    public Waypoint mapsourceDegrees() throws ParseException {
+        return mapsourceDegreesLineParser.parseLine(mapsourceDegreesLines[nextIndex()], "\\t");
+    }
+}
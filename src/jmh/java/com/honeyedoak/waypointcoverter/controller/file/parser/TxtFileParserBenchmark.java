@@ -0,0 +1,99 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2013 Pieter Van Eeckhout.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.honeyedoak.waypointcoverter.controller.file.parser;
+
+import com.honeyedoak.waypointcoverter.WaypointDataGenerator;
+import com.honeyedoak.waypointcoverter.exceptions.FatalException;
+import com.honeyedoak.waypointcoverter.exceptions.FileException;
+import com.honeyedoak.waypointcoverter.exceptions.ParseException;
+import com.honeyedoak.waypointcoverter.exceptions.ProcessingException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TxtFileParserBenchmark.java (UTF-8)
+ *
+ * <p>Measures parsing a generated MapSource or BaseCamp TXT file with a
+ * growing number of threads, to see how the chunked parsing scales. Pass the
+ * core count of the machine with <code>-p threads=...</code>.</p>
+ *
+ * 2026/10/17
+ *
+ * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
+ * @since 2.0.0
+ * @version 2.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TxtFileParserBenchmark {
+
+    @Param({"mapsource-digits", "basecamp"})
+    private String format;
+    @Param({"1000000"})
+    private int count;
+    @Param({"1", "2", "4", "8"})
+    private int threads;
+    private Path file;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("waypoints", ".txt");
+        new WaypointDataGenerator().writeFile(format, count, file);
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        pool.shutdown();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) throws FileException, ParseException, FatalException, ProcessingException {
+        new TxtFileParser(new ChunkedParser(pool, ChunkedParser.DEFAULT_CHUNK_SIZE)).parseFile(file.toFile(), blackhole::consume);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2013 Pieter Van Eeckhout.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.honeyedoak.waypointcoverter.controller.waypoint;
+
+import com.honeyedoak.waypointcoverter.WaypointDataGenerator;
+import com.honeyedoak.waypointcoverter.model.Waypoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WaypointKdTreeBenchmark.java (UTF-8)
+ *
+ * <p>Measures building the spatial index of the waypoints and answering a
+ * bounding box, a radius and a nearest neighbour query from it.</p>
+ *
+ * 2026/10/17
+ *
+ * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
+ * @since 2.0.0
+ * @version 2.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class WaypointKdTreeBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int count;
+    private List<Waypoint> waypoints;
+    private WaypointKdTree tree;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        waypoints = new WaypointDataGenerator().waypoints(count);
+        tree = new WaypointKdTree(waypoints);
+    }
+
+    @Benchmark
+    public Object build() {
+        return new WaypointKdTree(waypoints);
+    }
+
+    @Benchmark
+    public Object inBox() {
+        return tree.inBox(50, 4, 51, 5);
+    }
+
+    @Benchmark
+    public Object within() {
+        return tree.within(50.85, 4.35, 50000);
+    }
+
+    @Benchmark
+    public Object nearest() {
+        return tree.nearest(50.85, 4.35, 10);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2013 Pieter Van Eeckhout.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.honeyedoak.waypointcoverter.controller.waypoint;
+
+import com.honeyedoak.waypointcoverter.WaypointDataGenerator;
+import com.honeyedoak.waypointcoverter.exceptions.WaypointAlreadyExistsException;
+import com.honeyedoak.waypointcoverter.model.Waypoint;
+import com.honeyedoak.waypointcoverter.model.WaypointUI;
+import com.honeyedoak.waypointcoverter.util.BaseObserver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WaypointRepositoryBenchmark.java (UTF-8)
+ *
+ * <p>Measures notifying an observer of a filled repository, which is done
+ * after every change of the repository, taking the waypoints to export with
+ * near-duplicates merged, and loading a batch of waypoints in
+ * an empty repository, for both store backends and for the concurrent
+ * repository.</p>
+ *
+ * 2026/10/17
+ *
+ * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
+ * @since 2.0.0
+ * @version 2.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class WaypointRepositoryBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int count;
+    @Param({"hash", "primitive", "concurrent"})
+    private String store;
+    private List<Waypoint> waypoints;
+    private WaypointRepository waypointRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() throws WaypointAlreadyExistsException {
+        waypoints = new WaypointDataGenerator().waypoints(count);
+        waypointRepository = createRepository();
+        waypointRepository.addWaypoints(waypoints);
+        waypointRepository.addObsever(new BaseObserver<WaypointRepository, List<WaypointUI>, String>() {
+        });
+    }
+
+    private WaypointRepository createRepository() {
+        if ("concurrent".equals(store)) {
+            return new ConcurrentWaypointRepository();
+        }
+        return new WaypointRepository("primitive".equals(store) ? new PrimitiveWaypointStore() : new HashWaypointStore());
+    }
+
+    @Benchmark
+    public void notifyObservers() {
+        waypointRepository.notifyObservers();
+    }
+
+    @Benchmark
+    public Object getWaypointsToExportMerged() {
+        return waypointRepository.getWaypointsToExport(25);
+    }
+
+    @Benchmark
+    public Object addWaypoints() throws WaypointAlreadyExistsException {
+        WaypointRepository repository = createRepository();
+        repository.addWaypoints(waypoints);
+        return repository;
+    }
+}
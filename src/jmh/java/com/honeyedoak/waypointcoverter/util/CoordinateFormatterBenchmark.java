@@ -0,0 +1,124 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2013 Pieter Van Eeckhout.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.honeyedoak.waypointcoverter.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CoordinateFormatterBenchmark.java (UTF-8)
+ *
+ * <p>Compares the CoordinateFormatter with the DecimalFormat that was created
+ * for every formatted waypoint before.</p>
+ *
+ * 2026/10/17
+ *
+ * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
+ * @since 2.0.0
+ * @version 2.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class CoordinateFormatterBenchmark {
+
+    private static final int VALUE_COUNT = 1024;
+    private double[] values;
+    private int index;
+    private DecimalFormat sharedDecimalFormat;
+    private StringBuilder builder;
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(688432065L);
+        values = new double[VALUE_COUNT];
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            values[i] = random.nextDouble() * 180;
+        }
+        sharedDecimalFormat = createDecimalFormat();
+        builder = new StringBuilder(CoordinateFormatter.MAX_LENGTH);
+        buffer = ByteBuffer.allocate(CoordinateFormatter.MAX_LENGTH);
+    }
+
+    private double nextValue() {
+        index = (index + 1) & (VALUE_COUNT - 1);
+        return values[index];
+    }
+
+    /**
+     * the formatting as it was done before: a new DecimalFormat for every call
+     */
+    @Benchmark
+    public String decimalFormatPerCall() {
+        return createDecimalFormat().format(nextValue());
+    }
+
+    @Benchmark
+    public String decimalFormatShared() {
+        return sharedDecimalFormat.format(nextValue());
+    }
+
+    @Benchmark
+    public String formatterToString() {
+        return CoordinateFormatter.format(nextValue());
+    }
+
+    @Benchmark
+    public StringBuilder formatterStringBuilder() {
+        builder.setLength(0);
+        return CoordinateFormatter.append(builder, nextValue());
+    }
+
+    @Benchmark
+    public ByteBuffer formatterByteBuffer() {
+        buffer.clear();
+        return CoordinateFormatter.put(buffer, nextValue());
+    }
+
+    private static DecimalFormat createDecimalFormat() {
+        DecimalFormat decimalFormat = new DecimalFormat("###.000000");
+        DecimalFormatSymbols decimalSymbol = new DecimalFormatSymbols();
+        decimalSymbol.setDecimalSeparator('.');
+        decimalFormat.setDecimalFormatSymbols(decimalSymbol);
+        return decimalFormat;
+    }
+}
@@ -24,18 +24,22 @@
 package com.honeyedoak.waypointcoverter;
 
 import com.honeyedoak.waypointcoverter.controller.file.FileController;
+import com.honeyedoak.waypointcoverter.controller.waypoint.ConcurrentWaypointRepository;
 import com.honeyedoak.waypointcoverter.controller.waypoint.WaypointController;
 import com.honeyedoak.waypointcoverter.controller.waypoint.WaypointRepository;
 import com.honeyedoak.waypointcoverter.view.BaseUI;
+import com.honeyedoak.waypointcoverter.view.CommandLine;
 import com.honeyedoak.waypointcoverter.view.GUI;
 import com.honeyedoak.waypointcoverter.controller.DomainFacade;
+import com.honeyedoak.waypointcoverter.util.LogConfigurator;
 import org.apache.log4j.Logger;
-import org.apache.log4j.PropertyConfigurator;
 
 /**
  * WaypointConverter.java (UTF-8)
  *
- * <p>This class is the main class to start this application.</p>
+ * <p>This class is the main class to start this application. Without
+ * arguments the GUI is started, with arguments the given files are converted
+ * on the command line.</p>
  *
  * 2013/06/08
  *
@@ -44,7 +48,8 @@ import org.apache.log4j.PropertyConfigurator;
  * @version 1.0.2
  */
 public class WaypointConverter {
-    
+
+    private static final String LOG_SETTINGS = "settings/log4j.properties";
     private Logger logger;
 
     /**
@@ -53,7 +58,12 @@ public class WaypointConverter {
      * @param args the command line arguments
      */
     public static void main(String[] args) {
-        new WaypointConverter();
+        if (args.length > 0) {
+            LogConfigurator.configure(LOG_SETTINGS);
+            System.exit(new CommandLine().run(args));
+        } else {
+            new WaypointConverter();
+        }
     }
 
     /**
@@ -62,13 +72,14 @@ public class WaypointConverter {
     public WaypointConverter() {
         
         //load log4j.properties file.
-        PropertyConfigurator.configure("settings/log4j.properties");
+        LogConfigurator.configure(LOG_SETTINGS);
         
         //make logger
         logger = Logger.getLogger(WaypointConverter.class);
         
         logger.trace("creating waypoint repository");
-        WaypointRepository waypointRepository = new WaypointRepository();
+        //the GUI loads and exports on worker threads
+        WaypointRepository waypointRepository = new ConcurrentWaypointRepository();
         
         logger.trace("creating waypoint controller");
         WaypointController waypointController = new WaypointController(waypointRepository);
@@ -24,11 +24,25 @@
 package com.honeyedoak.waypointcoverter.controller;
 
 import com.honeyedoak.waypointcoverter.controller.file.FileController;
+import com.honeyedoak.waypointcoverter.controller.file.parser.WaypointSink;
+import com.honeyedoak.waypointcoverter.controller.waypoint.ConcurrentWaypointRepository;
+import com.honeyedoak.waypointcoverter.controller.waypoint.DuplicatePolicy;
 import com.honeyedoak.waypointcoverter.controller.waypoint.WaypointController;
+import com.honeyedoak.waypointcoverter.controller.waypoint.WaypointRepository;
 import com.honeyedoak.waypointcoverter.exceptions.*;
+import com.honeyedoak.waypointcoverter.model.Waypoint;
+import com.honeyedoak.waypointcoverter.model.WaypointUI;
 import org.apache.log4j.Logger;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * DomainFacade.java (UTF-8)
@@ -46,6 +60,8 @@ public class DomainFacade {
 
 	private WaypointController waypointController;
 	private FileController fileController;
+	private DuplicatePolicy duplicatePolicy = DuplicatePolicy.FAIL;
+	private double mergeDistance;
 	private Logger logger;
 
 	public DomainFacade(WaypointController waypointController, FileController fileController) {
@@ -70,22 +86,220 @@ public class DomainFacade {
 		this.fileController = fileController;
 	}
 
+	public DuplicatePolicy getDuplicatePolicy() {
+		return duplicatePolicy;
+	}
+
+	/**
+	 * @param duplicatePolicy what loading does with waypoints whose name is
+	 * taken
+	 */
+	public void setDuplicatePolicy(DuplicatePolicy duplicatePolicy) {
+		this.duplicatePolicy = duplicatePolicy;
+	}
+
+	public double getMergeDistance() {
+		return mergeDistance;
+	}
+
+	/**
+	 * @param mergeDistance in metres, an exported waypoint within this
+	 * distance of one exported before it is left out. 0 exports every
+	 * waypoint.
+	 */
+	public void setMergeDistance(double mergeDistance) {
+		this.mergeDistance = mergeDistance;
+	}
+
+	/**
+	 * Loads all the waypoints of the file, or none of them when the file can
+	 * not be parsed or, with the FAIL duplicate policy, holds a name that is
+	 * taken.
+	 */
 	public void loadFile(String filePath) throws FileException, FatalException, ProcessingException {
+		addWaypoints(readFile(filePath, waypoint -> {
+		}));
+	}
+
+	/**
+	 * Loads several files at the same time. Every file is loaded completely
+	 * or not at all, a failing file does not stop the others. The files are
+	 * only loaded in parallel when the repository is a
+	 * ConcurrentWaypointRepository, otherwise one after the other.
+	 *
+	 * @param threads the number of files loaded at the same time
+	 * @throws ProcessingException when files failed, after all the files
+	 * were tried
+	 */
+	public void loadFiles(List<String> filePaths, int threads) throws ProcessingException, InterruptedException {
+		WaypointRepository repository = waypointController.getWaypointRepository();
+		boolean concurrent = repository instanceof ConcurrentWaypointRepository;
+		List<Callable<String>> jobs = new ArrayList<>(filePaths.size());
+		for (String filePath : filePaths) {
+			jobs.add(() -> {
+				try {
+					loadFile(filePath);
+					return null;
+				} catch (FileException | FatalException | ProcessingException ex) {
+					logger.error("loading failed for " + filePath + ": " + ex.getMessage());
+					return filePath + ": " + ex.getMessage();
+				}
+			});
+		}
+
+		List<String> failures = new ArrayList<>();
+		ExecutorService executor = Executors.newFixedThreadPool(concurrent ? Math.max(threads, 1) : 1);
 		try {
-			waypointController.addWaypoints(fileController.readWaypointsFromFile(filePath));
+			for (Future<String> future : executor.invokeAll(jobs)) {
+				String failure = future.get();
+				if (failure != null) {
+					failures.add(failure);
+				}
+			}
+		} catch (ExecutionException ex) {
+			//the jobs report their failures, they do not throw
+			throw new IllegalStateException(ex.getCause());
+		} finally {
+			executor.shutdownNow();
+			if (concurrent) {
+				((ConcurrentWaypointRepository) repository).flush();
+			}
+		}
 
-		} catch (WaypointAlreadyExistsException | InvalidModelStateException | ParseException ex) {
+		if (!failures.isEmpty()) {
+			throw new ProcessingException(String.join("\n", failures));
+		}
+	}
+
+	/**
+	 * Reads the waypoints of a file without loading them, so it can run away
+	 * from the thread that owns the repository.
+	 *
+	 * @param progress told about every waypoint read, throws to cancel
+	 */
+	public List<Waypoint> readFile(String filePath, WaypointSink progress) throws FileException, FatalException, ProcessingException {
+		List<Waypoint> waypoints = new ArrayList<>();
+		try {
+			fileController.readWaypointsFromFile(filePath, waypoint -> {
+				waypoints.add(waypoint);
+				progress.accept(waypoint);
+			});
+		} catch (InvalidModelStateException | ParseException ex) {
+			throw new ProcessingException(ex.getMessage());
+		}
+		return waypoints;
+	}
+
+	/**
+	 * Loads the waypoints, taken names are handled as the duplicate policy
+	 * says.
+	 *
+	 * @return the number of waypoints whose name was taken
+	 */
+	public int addWaypoints(List<Waypoint> waypoints) throws ProcessingException {
+		try {
+			return waypointController.addWaypoints(waypoints, duplicatePolicy);
+		} catch (WaypointAlreadyExistsException ex) {
 			throw new ProcessingException(ex.getMessage());
 		}
 	}
 
+	/**
+	 * Converts a waypoint file straight to an Opel waypoint file without
+	 * loading it in the waypoint repository.
+	 */
+	public void convertFile(String inputFilePath, String outputFilePath, boolean overwrite) throws IOException, FatalException, ProcessingException {
+		try {
+			fileController.convertFile(inputFilePath, outputFilePath, overwrite);
+		} catch (InvalidModelStateException | ParseException ex) {
+			throw new ProcessingException(ex.getMessage());
+		}
+	}
+
+	/**
+	 * Saves all the waypoints and their export state in a binary snapshot
+	 * file.
+	 */
+	public void saveSession(String filePath, boolean overwrite) throws IOException, ProcessingException {
+		try {
+			fileController.writeSnapshot(filePath, waypointController.getWaypointRepository().getWaypoints(), overwrite);
+		} catch (InvalidModelStateException e) {
+			throw new ProcessingException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Replaces the waypoints by those of a binary snapshot file. The
+	 * repository is not changed when the file can not be read.
+	 */
+	public void loadSession(String filePath) throws IOException, ProcessingException {
+		List<Waypoint> waypoints;
+		try {
+			waypoints = fileController.readSnapshot(filePath);
+		} catch (InvalidModelStateException | ParseException e) {
+			throw new ProcessingException(e.getMessage());
+		}
+		WaypointRepository repository = waypointController.getWaypointRepository();
+		repository.clear();
+		try {
+			repository.addWaypoints(waypoints);
+		} catch (WaypointAlreadyExistsException e) {
+			throw new ProcessingException(e.getMessage());
+		}
+	}
+
 	public void toggleWaypointExport(String waypointName) throws WaypointDoesNotExistException {
 		waypointController.toggleWaypointExport(waypointName);
 	}
 
+	/**
+	 * @return the formatted row of a waypoint, for the table of the GUI
+	 */
+	public WaypointUI getWaypointUI(String waypointName) throws WaypointDoesNotExistException, InvalidModelStateException {
+		return waypointController.getWaypointRepository().getWaypointUI(waypointName);
+	}
+
+	/**
+	 * @return the waypoints to export, near-duplicates left out as the merge
+	 * distance says
+	 */
+	public List<Waypoint> getWaypointsToExport() {
+		return waypointController.getWaypointRepository().getWaypointsToExport(mergeDistance);
+	}
+
+	/**
+	 * Writes waypoints taken earlier with getWaypointsToExport, so it can run
+	 * away from the thread that owns the repository.
+	 *
+	 * @param progress told about every written waypoint, throws to cancel
+	 */
+	public void exportWaypoints(String filePath, List<Waypoint> waypoints, boolean overwrite, WaypointSink progress) throws IOException, ProcessingException {
+		try {
+			fileController.writeOpelWaypointsToFile(filePath, waypoints, overwrite, progress);
+		} catch (InvalidModelStateException e) {
+			throw new ProcessingException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Exports the waypoints to several files, split by region, by a largest
+	 * number of waypoints a file or both.
+	 *
+	 * @param tileSize the size of a region in degrees, 0 to not split by region
+	 * @param maxWaypoints the most waypoints written to a file, 0 for no limit
+	 * @return the files written
+	 */
+	public List<Path> exportWaypoints(String filePath, int tileSize, int maxWaypoints, boolean overwrite) throws IOException, ProcessingException, InterruptedException {
+		try {
+			return fileController.writeOpelWaypointsToFiles(filePath, getWaypointsToExport(), tileSize, maxWaypoints, overwrite);
+		} catch (InvalidModelStateException e) {
+			throw new ProcessingException(e.getMessage());
+		}
+	}
+
 	public void exportWaypoints(String filePath, boolean overwrite) throws IOException, ProcessingException {
 		try {
-			fileController.writeOpelWaypointsToFile(filePath, waypointController.getWaypointRepository().getWaypointsToExport(), overwrite);
+			fileController.writeOpelWaypointsToFile(filePath, getWaypointsToExport(), overwrite);
 		} catch (InvalidModelStateException e) {
 			throw new ProcessingException(e.getMessage());
 		}
@@ -0,0 +1,215 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2013 Pieter Van Eeckhout.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.honeyedoak.waypointcoverter.controller.batch;
+
+import com.honeyedoak.waypointcoverter.controller.DomainFacade;
+import com.honeyedoak.waypointcoverter.controller.file.FileController;
+import com.honeyedoak.waypointcoverter.controller.waypoint.WaypointController;
+import com.honeyedoak.waypointcoverter.exceptions.FatalException;
+import com.honeyedoak.waypointcoverter.exceptions.FileException;
+import com.honeyedoak.waypointcoverter.exceptions.InvalidModelStateException;
+import com.honeyedoak.waypointcoverter.exceptions.ProcessingException;
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * BatchController.java (UTF-8)
+ *
+ * <p>Converts many waypoint files to Opel waypoint files without a UI. The
+ * files are converted in parallel on a fixed pool of workers, every file gets
+ * its own FileController and DomainFacade so the workers share no state.</p>
+ *
+ * <p>The output file of <code>name.ext</code> is <code>name_ext.txt</code>,
+ * so files with the same name but a different format do not overwrite each
+ * other.</p>
+ *
+ * 2026/10/17
+ *
+ * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
+ * @since 2.0.0
+ * @version 2.0.0
+ */
+public class BatchController {
+
+	private static final String[] SUPPORTED_EXTENSIONS = {"txt", "gpx", "csv", "gz", "zip"};
+	private final int threads;
+	private final boolean overwrite;
+	private Logger logger;
+
+	/**
+	 * @param threads the number of files converted at the same time
+	 * @param overwrite whether existing output files may be replaced
+	 */
+	public BatchController(int threads, boolean overwrite) throws InvalidModelStateException {
+		if (threads < 1) {
+			throw new InvalidModelStateException("the number of threads must be at least 1");
+		}
+		logger = Logger.getLogger(BatchController.class);
+		this.threads = threads;
+		this.overwrite = overwrite;
+	}
+
+	/**
+	 * Converts the given files, directories are searched recursively for
+	 * supported waypoint files. A file that this batch writes as the output
+	 * of another input is skipped, so a rerun does not read its own output.
+	 *
+	 * @param inputs files and directories to convert
+	 * @param outputDirectory where to write the output files, the directory
+	 * structure below an input directory is kept. When null the output is
+	 * written next to each input file.
+	 * @return the outcome of the conversion
+	 * @throws FileException when the inputs could not be listed
+	 */
+	public BatchResult convert(List<File> inputs, File outputDirectory) throws FileException, InterruptedException {
+		Map<Path, Path> outputs = new LinkedHashMap<>();
+		for (File input : inputs) {
+			Path inputPath = input.toPath();
+			for (Path file : collectFiles(inputPath)) {
+				Path baseDirectory = Files.isDirectory(inputPath) ? inputPath : inputPath.getParent();
+				outputs.put(file.toAbsolutePath().normalize(), outputPath(file, baseDirectory, outputDirectory).toAbsolutePath().normalize());
+			}
+		}
+
+		//the output of an earlier run is written again by this one, it is not an input
+		Set<Path> outputFiles = new HashSet<>(outputs.values());
+		List<Callable<String>> jobs = new ArrayList<>();
+		for (Map.Entry<Path, Path> output : outputs.entrySet()) {
+			if (outputFiles.contains(output.getKey())) {
+				logger.debug("skipped " + output.getKey() + ", it is an output of this batch");
+			} else {
+				jobs.add(createJob(output.getKey(), output.getValue()));
+			}
+		}
+		logger.info("converting " + jobs.size() + " files on " + threads + " threads");
+
+		BatchResult result = new BatchResult();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			for (Future<String> future : executor.invokeAll(jobs)) {
+				String failure = future.get();
+				if (failure == null) {
+					result.addConverted();
+				} else {
+					result.addFailure(failure);
+				}
+			}
+		} catch (ExecutionException e) {
+			//the jobs report their failures, they do not throw
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+
+		logger.info("converted " + result.getConverted() + " files, " + result.getFailures().size() + " failed");
+		return result;
+	}
+
+	private Callable<String> createJob(final Path inputFile, final Path outputFile) {
+		return () -> {
+			DomainFacade domainFacade = new DomainFacade(new WaypointController(), new FileController());
+			try {
+				if (outputFile.getParent() != null) {
+					Files.createDirectories(outputFile.getParent());
+				}
+				domainFacade.convertFile(inputFile.toString(), outputFile.toString(), overwrite);
+				logger.debug("converted " + inputFile + " to " + outputFile);
+				return null;
+			} catch (IOException | ProcessingException | FatalException e) {
+				String failure = inputFile + ": " + e.getMessage();
+				logger.error("conversion failed for " + failure);
+				return failure;
+			} catch (RuntimeException e) {
+				//a bad input must not abort the other files of the batch
+				String failure = inputFile + ": " + e;
+				logger.error("conversion failed for " + failure, e);
+				return failure;
+			}
+		};
+	}
+
+	private List<Path> collectFiles(Path input) throws FileException {
+		if (!Files.exists(input)) {
+			throw new FileException(input + " does not exist");
+		}
+		if (!Files.isDirectory(input)) {
+			List<Path> files = new ArrayList<>();
+			files.add(input);
+			return files;
+		}
+
+		try (Stream<Path> paths = Files.walk(input)) {
+			return paths.filter(Files::isRegularFile)
+					.filter(this::isSupported)
+					.sorted()
+					.collect(Collectors.toList());
+		} catch (IOException e) {
+			String error = "could not list the files in " + input;
+			logger.error(error);
+			logger.debug(e.getMessage());
+			throw new FileException(error, e);
+		}
+	}
+
+	private boolean isSupported(Path file) {
+		String fileName = file.getFileName().toString();
+		for (String extension : SUPPORTED_EXTENSIONS) {
+			if (fileName.endsWith("." + extension)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private Path outputPath(Path inputFile, Path baseDirectory, File outputDirectory) {
+		String fileName = inputFile.getFileName().toString();
+		int extensionIndex = fileName.lastIndexOf('.');
+		String outputName = extensionIndex > 0
+				? fileName.substring(0, extensionIndex) + "_" + fileName.substring(extensionIndex + 1) + ".txt"
+				: fileName + ".txt";
+
+		if (outputDirectory == null) {
+			return inputFile.resolveSibling(outputName);
+		}
+		Path relative = baseDirectory == null ? inputFile.getFileName() : baseDirectory.relativize(inputFile);
+		return outputDirectory.toPath().resolve(relative).resolveSibling(outputName);
+	}
+}
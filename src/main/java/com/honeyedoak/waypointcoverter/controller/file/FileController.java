@@ -23,22 +23,19 @@
  */
 package com.honeyedoak.waypointcoverter.controller.file;
 
-import com.honeyedoak.waypointcoverter.controller.file.parser.CsvFileParser;
 import com.honeyedoak.waypointcoverter.controller.file.parser.FileParser;
-import com.honeyedoak.waypointcoverter.controller.file.parser.GpxFileParser;
-import com.honeyedoak.waypointcoverter.controller.file.parser.TxtFileParser;
+import com.honeyedoak.waypointcoverter.controller.file.parser.ParserRegistry;
+import com.honeyedoak.waypointcoverter.controller.file.parser.WaypointSink;
 import com.honeyedoak.waypointcoverter.exceptions.*;
 import com.honeyedoak.waypointcoverter.model.Waypoint;
 import org.apache.log4j.Logger;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * GPSCoordinateControler.java (UTF-8)
@@ -48,44 +45,100 @@ import java.util.stream.Collectors;
  * 2013/06/08
  *
  * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
- * @version 1.1.0
+ * @version 2.0.0
  * @since 1.0.0
  */
 public class FileController {
 
 	private Logger logger;
-	private FileParser fileParser;
+	//shared by the threads of DomainFacade.loadFiles, the registry keeps no state per file
+	private final FileParser fileParser;
 
 	public FileController() {
 		logger = Logger.getLogger(FileController.class);
+		fileParser = new ParserRegistry();
 	}
 
 	public List<Waypoint> readWaypointsFromFile(String filePath) throws FileException, FatalException, InvalidModelStateException, ParseException {
+		return createFileParser(filePath).parseFile(new File(filePath));
+	}
+
+	/**
+	 * Reads the waypoints from the file and hands them to the sink one at a
+	 * time, the waypoints of the file are never collected in memory.
+	 *
+	 * @param filePath the file to read
+	 * @param sink receives the waypoints in file order
+	 */
+	public void readWaypointsFromFile(String filePath, WaypointSink sink) throws FileException, FatalException, InvalidModelStateException, ParseException, ProcessingException {
+		createFileParser(filePath).parseFile(new File(filePath), sink);
+	}
+
+	/**
+	 * Converts the input file straight to an Opel waypoint file. Every waypoint
+	 * is written out as soon as it is read, so the memory used does not depend
+	 * on the size of the input.
+	 *
+	 * @param inputFilePath the file to read
+	 * @param outputFilePath the Opel file to write, .txt is added when missing
+	 * @param overwrite whether an existing output file may be replaced
+	 */
+	public void convertFile(String inputFilePath, String outputFilePath, boolean overwrite) throws FileException, FatalException, InvalidModelStateException, ParseException, ProcessingException, IOException {
+		FileParser parser = createFileParser(inputFilePath);
+		Path outputPath = resolveOutputPath(outputFilePath);
+		Path inputPath = Paths.get(inputFilePath);
+		//the output is truncated before the input is read
+		if (Files.exists(outputPath) ? Files.exists(inputPath) && Files.isSameFile(inputPath, outputPath)
+				: inputPath.toAbsolutePath().normalize().equals(outputPath.toAbsolutePath().normalize())) {
+			logger.error("the output file is the input file: " + outputPath);
+			throw new InvalidModelStateException("the output file can not be the input file");
+		}
+		checkOverwrite(outputPath, overwrite);
+
+		boolean completed = false;
+		try {
+			try (OpelWaypointWriter writer = new OpelWaypointWriter(outputPath)) {
+				parser.parseFile(new File(inputFilePath), waypoint -> {
+					try {
+						writer.write(waypoint);
+					} catch (IOException e) {
+						throw new ProcessingException("could not write waypoint " + waypoint.getName() + ": " + e.getMessage(), e);
+					}
+				});
+			}
+			//only once the writer is flushed and closed
+			completed = true;
+		} catch (IOException e) {
+			logger.error(e);
+			throw e;
+		} finally {
+			if (!completed) {
+				//do not leave a half written file behind
+				Files.deleteIfExists(outputPath);
+			}
+		}
+	}
 
+	private FileParser createFileParser(String filePath) throws InvalidModelStateException {
 		if (filePath == null || filePath.isEmpty()) {
 			logger.error("input file path is empty or null");
 			throw new InvalidModelStateException("intput filePath cannot be null or empty");
 		}
 
-		if (filePath.endsWith("txt")) {
-			fileParser = new TxtFileParser();
-		} else if (filePath.endsWith("gpx")) {
-			fileParser = new GpxFileParser();
-		} else if (filePath.endsWith("csv")) {
-			fileParser = new CsvFileParser();
-		} else {
-			throw new ParseException("unsupported File extention");
-		}
-
-		return fileParser.parseFile(new File(filePath));
+		//the format is recognised from the content of the file when it is parsed
+		return fileParser;
 	}
 
-	public void writeOpelWaypointsToFile(String filePath, List<Waypoint> waypointList) throws InvalidModelStateException, IOException {
-		writeOpelWaypointsToFile(filePath, waypointList, false);
+	private Path prepareOutputPath(String filePath, boolean overwrite) throws InvalidModelStateException, FileAlreadyExistsException {
+		Path path = resolveOutputPath(filePath);
+		checkOverwrite(path, overwrite);
+		return path;
 	}
 
-	public void writeOpelWaypointsToFile(String filePath, List<Waypoint> waypointList, boolean overwrite) throws InvalidModelStateException, IOException {
-
+	/**
+	 * @return the path of the output file, with .txt added when it is missing
+	 */
+	private Path resolveOutputPath(String filePath) throws InvalidModelStateException {
 		if (filePath == null || filePath.isEmpty()) {
 			logger.error("output file path is empty or null");
 			throw new InvalidModelStateException("output filePath cannot be null or empty.");
@@ -97,22 +150,127 @@ public class FileController {
 			filePath += ".txt";
 		}
 
-		try (OutputStream outstream = Files.newOutputStream(Paths.get(filePath))) {
-			File file = new File(filePath);
+		return Paths.get(filePath);
+	}
 
-			if (file.exists() && !overwrite) {
-				logger.info(filePath + " already exists");
-				throw new FileAlreadyExistsException(filePath + " already exists");
-			} else {
-				logger.info(filePath + " already exists. Cleared for overwrite");
+	private void checkOverwrite(Path path, boolean overwrite) throws FileAlreadyExistsException {
+		if (Files.exists(path)) {
+			if (!overwrite) {
+				logger.info(path + " already exists");
+				throw new FileAlreadyExistsException(path + " already exists");
 			}
+			logger.info(path + " already exists. Cleared for overwrite");
+		}
+	}
 
-			final String collect = waypointList.stream().map(Waypoint::toOpelWaypoint).collect(Collectors.joining(String.format("%n")));
-			outstream.write(collect.getBytes(StandardCharsets.ISO_8859_1));
+	public void writeOpelWaypointsToFile(String filePath, List<Waypoint> waypointList) throws InvalidModelStateException, IOException {
+		writeOpelWaypointsToFile(filePath, waypointList, false);
+	}
 
+	public void writeOpelWaypointsToFile(String filePath, List<Waypoint> waypointList, boolean overwrite) throws InvalidModelStateException, IOException {
+		try {
+			writeOpelWaypointsToFile(filePath, waypointList, overwrite, waypoint -> {
+			});
+		} catch (ProcessingException e) {
+			//the sink accepts everything, getting here means something is very wrong
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Saves the waypoints in a binary snapshot file, see
+	 * {@link WaypointSnapshot}.
+	 */
+	public void writeSnapshot(String filePath, List<Waypoint> waypointList, boolean overwrite) throws InvalidModelStateException, IOException {
+		Path path = prepareSnapshotPath(filePath, overwrite);
+		boolean completed = false;
+		try {
+			new WaypointSnapshot().write(path, waypointList);
+			completed = true;
 		} catch (IOException e) {
 			logger.error(e);
 			throw e;
+		} finally {
+			if (!completed) {
+				//do not leave a half written file behind
+				Files.deleteIfExists(path);
+			}
+		}
+	}
+
+	/**
+	 * @return the waypoints saved in a binary snapshot file
+	 */
+	public List<Waypoint> readSnapshot(String filePath) throws InvalidModelStateException, IOException, ParseException {
+		if (filePath == null || filePath.isEmpty()) {
+			logger.error("snapshot file path is empty or null");
+			throw new InvalidModelStateException("snapshot filePath cannot be null or empty");
+		}
+		Path path = Paths.get(filePath);
+		if (!Files.exists(path)) {
+			throw new FileException(filePath + " does not exist");
+		}
+		return new WaypointSnapshot().read(path);
+	}
+
+	private Path prepareSnapshotPath(String filePath, boolean overwrite) throws InvalidModelStateException, FileAlreadyExistsException {
+		if (filePath == null || filePath.isEmpty()) {
+			logger.error("snapshot file path is empty or null");
+			throw new InvalidModelStateException("snapshot filePath cannot be null or empty");
+		}
+		Path path = Paths.get(filePath);
+		if (Files.exists(path) && !overwrite) {
+			logger.info(filePath + " already exists");
+			throw new FileAlreadyExistsException(filePath + " already exists");
+		}
+		return path;
+	}
+
+	/**
+	 * Splits the waypoints over several Opel waypoint files, by region, by a
+	 * largest number of waypoints a file or both, and writes the files in
+	 * parallel. See {@link OpelShardExporter} for the names of the files.
+	 *
+	 * @param filePath the Opel file the names of the files are made from
+	 * @param tileSize the size of a region in degrees, 0 to not split by region
+	 * @param maxWaypoints the most waypoints written to a file, 0 for no limit
+	 * @return the files written
+	 */
+	public List<Path> writeOpelWaypointsToFiles(String filePath, List<Waypoint> waypointList, int tileSize, int maxWaypoints, boolean overwrite) throws InvalidModelStateException, IOException, InterruptedException {
+		//the files of the shards are checked for overwriting themselves
+		Path outputPath = resolveOutputPath(filePath);
+		OpelShardExporter exporter = new OpelShardExporter(tileSize, maxWaypoints, Runtime.getRuntime().availableProcessors());
+		return exporter.export(outputPath, waypointList, overwrite);
+	}
+
+	/**
+	 * Writes the waypoints and hands every written waypoint to the progress
+	 * sink. When the sink refuses a waypoint the export stops and the file is
+	 * deleted.
+	 *
+	 * @param progress told about every written waypoint, throws to cancel
+	 */
+	public void writeOpelWaypointsToFile(String filePath, List<Waypoint> waypointList, boolean overwrite, WaypointSink progress) throws InvalidModelStateException, IOException, ProcessingException {
+		Path outputPath = prepareOutputPath(filePath, overwrite);
+
+		boolean completed = false;
+		try {
+			try (OpelWaypointWriter writer = new OpelWaypointWriter(outputPath)) {
+				for (Waypoint waypoint : waypointList) {
+					writer.write(waypoint);
+					progress.accept(waypoint);
+				}
+			}
+			//only once the writer is flushed and closed
+			completed = true;
+		} catch (IOException e) {
+			logger.error(e);
+			throw e;
+		} finally {
+			if (!completed) {
+				//do not leave a half written file behind
+				Files.deleteIfExists(outputPath);
+			}
 		}
 	}
 }
@@ -0,0 +1,194 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2013 Pieter Van Eeckhout.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.honeyedoak.waypointcoverter.controller.file;
+
+import com.honeyedoak.waypointcoverter.exceptions.FileAlreadyExistsException;
+import com.honeyedoak.waypointcoverter.exceptions.InvalidModelStateException;
+import com.honeyedoak.waypointcoverter.model.Waypoint;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * OpelShardExporter.java (UTF-8)
+ *
+ * <p>Splits an export over several Opel waypoint files, by square tiles of
+ * latitude and longitude, by a largest number of waypoints a file or both.
+ * The waypoints are divided over the files in one pass, then the files are
+ * written in parallel, each through its own OpelWaypointWriter.</p>
+ *
+ * <p>The file of a tile is named after the south west corner of the tile,
+ * <code>export_N50E004.txt</code>. A tile or export with more waypoints than
+ * a file may hold is written to numbered parts, <code>export_1.txt</code>,
+ * <code>export_2.txt</code>...</p>
+ *
+ * 2026/10/17
+ *
+ * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
+ * @since 2.0.0
+ * @version 2.0.0
+ */
+public class OpelShardExporter {
+
+	private final int tileSize;
+	private final int maxWaypoints;
+	private final int threads;
+	private Logger logger;
+
+	/**
+	 * @param tileSize the size of a tile in degrees, 0 to not split by region
+	 * @param maxWaypoints the most waypoints written to a file, 0 for no limit
+	 * @param threads the number of files written at the same time
+	 */
+	public OpelShardExporter(int tileSize, int maxWaypoints, int threads) throws InvalidModelStateException {
+		if (tileSize < 0 || tileSize > 180) {
+			throw new InvalidModelStateException("the tile size must be between 0 and 180 degrees");
+		}
+		if (maxWaypoints < 0) {
+			throw new InvalidModelStateException("the number of waypoints a file can not be negative");
+		}
+		if (threads < 1) {
+			throw new InvalidModelStateException("the number of threads must be at least 1");
+		}
+		logger = Logger.getLogger(OpelShardExporter.class);
+		this.tileSize = tileSize;
+		this.maxWaypoints = maxWaypoints;
+		this.threads = threads;
+	}
+
+	/**
+	 * Divides the waypoints over the files, in one pass.
+	 *
+	 * @param outputPath the Opel file the names of the files are made from
+	 * @return the waypoints of every file, in the order the files were first
+	 * needed
+	 */
+	public Map<Path, List<Waypoint>> plan(Path outputPath, Iterable<Waypoint> waypoints) {
+		Map<String, List<Waypoint>> tiles = new LinkedHashMap<>();
+		for (Waypoint waypoint : waypoints) {
+			String tile = tileSize == 0 ? "" : tileName(waypoint);
+			List<Waypoint> tileWaypoints = tiles.get(tile);
+			if (tileWaypoints == null) {
+				tileWaypoints = new ArrayList<>();
+				tiles.put(tile, tileWaypoints);
+			}
+			tileWaypoints.add(waypoint);
+		}
+
+		String fileName = outputPath.getFileName().toString();
+		String baseName = fileName.endsWith(".txt") ? fileName.substring(0, fileName.length() - 4) : fileName;
+		Map<Path, List<Waypoint>> shards = new LinkedHashMap<>();
+		for (Map.Entry<String, List<Waypoint>> tile : tiles.entrySet()) {
+			String tileBaseName = tile.getKey().isEmpty() ? baseName : baseName + "_" + tile.getKey();
+			List<Waypoint> tileWaypoints = tile.getValue();
+			if (maxWaypoints == 0 || tileWaypoints.size() <= maxWaypoints) {
+				shards.put(outputPath.resolveSibling(tileBaseName + ".txt"), tileWaypoints);
+				continue;
+			}
+			for (int from = 0, part = 1; from < tileWaypoints.size(); from += maxWaypoints, part++) {
+				int to = Math.min(from + maxWaypoints, tileWaypoints.size());
+				shards.put(outputPath.resolveSibling(tileBaseName + "_" + part + ".txt"), tileWaypoints.subList(from, to));
+			}
+		}
+		return shards;
+	}
+
+	/**
+	 * Writes the waypoints to the files of the plan. When a file can not be
+	 * written none of the files are left behind.
+	 *
+	 * @param overwrite whether existing files may be replaced, without it
+	 * nothing is written when one of the files exists
+	 * @return the files written
+	 */
+	public List<Path> export(Path outputPath, Iterable<Waypoint> waypoints, boolean overwrite) throws IOException, FileAlreadyExistsException, InterruptedException {
+		Map<Path, List<Waypoint>> shards = plan(outputPath, waypoints);
+		if (!overwrite) {
+			for (Path shard : shards.keySet()) {
+				if (Files.exists(shard)) {
+					logger.info(shard + " already exists");
+					throw new FileAlreadyExistsException(shard + " already exists");
+				}
+			}
+		}
+		logger.info("exporting to " + shards.size() + " files on " + threads + " threads");
+
+		List<Callable<Path>> jobs = new ArrayList<>(shards.size());
+		for (Map.Entry<Path, List<Waypoint>> shard : shards.entrySet()) {
+			jobs.add(() -> {
+				try (OpelWaypointWriter writer = new OpelWaypointWriter(shard.getKey())) {
+					for (Waypoint waypoint : shard.getValue()) {
+						writer.write(waypoint);
+					}
+				}
+				return shard.getKey();
+			});
+		}
+
+		boolean completed = false;
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, Math.max(jobs.size(), 1)));
+		try {
+			List<Path> written = new ArrayList<>(jobs.size());
+			for (Future<Path> future : executor.invokeAll(jobs)) {
+				written.add(future.get());
+			}
+			completed = true;
+			return written;
+		} catch (ExecutionException e) {
+			logger.error(e.getCause());
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+			if (!completed) {
+				//do not leave half an export behind
+				for (Path shard : shards.keySet()) {
+					Files.deleteIfExists(shard);
+				}
+			}
+		}
+	}
+
+	private String tileName(Waypoint waypoint) {
+		int latitude = (int) Math.floor(waypoint.getSignedLatitude() / tileSize) * tileSize;
+		int longitude = (int) Math.floor(waypoint.getSignedLongitude() / tileSize) * tileSize;
+		return String.format(Locale.ROOT, "%s%02d%s%03d",
+				latitude < 0 ? "S" : "N", Math.abs(latitude),
+				longitude < 0 ? "W" : "E", Math.abs(longitude));
+	}
+}
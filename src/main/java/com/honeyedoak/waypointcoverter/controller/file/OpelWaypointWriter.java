@@ -0,0 +1,165 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2013 Pieter Van Eeckhout.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.honeyedoak.waypointcoverter.controller.file;
+
+import com.honeyedoak.waypointcoverter.model.Waypoint;
+import com.honeyedoak.waypointcoverter.util.CoordinateFormatter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * OpelWaypointWriter.java (UTF-8)
+ *
+ * <p>Writes waypoints to an Opel waypoint file. Every waypoint is encoded as
+ * ISO-8859-1 straight into one reusable buffer, which is written to the file
+ * channel whenever it is full. The memory used does not depend on the number
+ * of waypoints written.</p>
+ *
+ * <p>The lines have the layout of {@link Waypoint#toOpelWaypoint()} and are
+ * separated by the platform line separator, the last line is not
+ * terminated.</p>
+ *
+ * 2026/10/17
+ *
+ * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
+ * @since 2.0.0
+ * @version 2.0.0
+ */
+public class OpelWaypointWriter implements Closeable {
+
+	private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+	//sign, longitude, comma, sign, latitude, comma, opening quote
+	private static final int MAX_COORDINATES_LENGTH = 2 * (CoordinateFormatter.MAX_LENGTH + 2) + 1;
+	private static final byte UNMAPPABLE = '?';
+	private final FileChannel channel;
+	private final ByteBuffer buffer;
+	private final byte[] lineSeparator;
+	private long waypointCount;
+	private long bytesWritten;
+
+	/**
+	 * Creates the file, an existing file is truncated.
+	 *
+	 * @param path the file to write
+	 */
+	public OpelWaypointWriter(Path path) throws IOException {
+		this(path, DEFAULT_BUFFER_SIZE);
+	}
+
+	public OpelWaypointWriter(Path path, int bufferSize) throws IOException {
+		lineSeparator = System.lineSeparator().getBytes("ISO-8859-1");
+		buffer = ByteBuffer.allocate(Math.max(bufferSize, MAX_COORDINATES_LENGTH + lineSeparator.length + 2));
+		channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+	}
+
+	public void write(Waypoint waypoint) throws IOException {
+		ensureRemaining(lineSeparator.length + MAX_COORDINATES_LENGTH);
+		if (waypointCount > 0) {
+			buffer.put(lineSeparator);
+		}
+
+		if (!waypoint.isEast()) {
+			buffer.put((byte) '-');
+		}
+		CoordinateFormatter.put(buffer, waypoint.getLongitude());
+		buffer.put((byte) ',');
+		if (!waypoint.isNorth()) {
+			buffer.put((byte) '-');
+		}
+		CoordinateFormatter.put(buffer, waypoint.getLatitude());
+		buffer.put((byte) ',');
+		buffer.put((byte) '"');
+		putName(waypoint.getName());
+		ensureRemaining(1);
+		buffer.put((byte) '"');
+
+		waypointCount++;
+	}
+
+	/**
+	 * Encodes the name as ISO-8859-1, like String.getBytes does characters
+	 * that can not be mapped (a surrogate pair counting as one character)
+	 * become a question mark.
+	 */
+	private void putName(String name) throws IOException {
+		int length = name.length();
+		for (int i = 0; i < length; i++) {
+			if (!buffer.hasRemaining()) {
+				flush();
+			}
+			char c = name.charAt(i);
+			if (c < 0x100) {
+				buffer.put((byte) c);
+			} else {
+				if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(name.charAt(i + 1))) {
+					i++;
+				}
+				buffer.put(UNMAPPABLE);
+			}
+		}
+	}
+
+	private void ensureRemaining(int length) throws IOException {
+		if (buffer.remaining() < length) {
+			flush();
+		}
+	}
+
+	/**
+	 * Writes the buffered bytes to the file.
+	 */
+	public void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			bytesWritten += channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	public long getWaypointCount() {
+		return waypointCount;
+	}
+
+	/**
+	 * @return the number of bytes written to the file so far, not counting
+	 * the bytes still in the buffer
+	 */
+	public long getBytesWritten() {
+		return bytesWritten;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+}
@@ -0,0 +1,308 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2013 Pieter Van Eeckhout.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.honeyedoak.waypointcoverter.controller.file;
+
+import com.honeyedoak.waypointcoverter.exceptions.InvalidModelStateException;
+import com.honeyedoak.waypointcoverter.exceptions.ParseException;
+import com.honeyedoak.waypointcoverter.model.Waypoint;
+import org.apache.log4j.Logger;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * WaypointSnapshot.java (UTF-8)
+ *
+ * <p>Saves and restores a whole set of waypoints in a compact binary file,
+ * instead of serializing the Waypoint objects one by one. Every field is
+ * stored in its own packed section, so the sections are moved through the
+ * file channel in bulk:</p>
+ *
+ * <ul>
+ * <li>header: the magic <code>WPTS</code>, the format version and the number
+ * of waypoints</li>
+ * <li>the byte length of every name, as ints</li>
+ * <li>the name blob: its length as a long, then the UTF-8 bytes of all
+ * names</li>
+ * <li>the latitudes and then the longitudes, as doubles</li>
+ * <li>three bitmaps of longs: north, east and export</li>
+ * </ul>
+ *
+ * <p>All numbers are big-endian. An instance reuses one buffer, it is not
+ * meant to be used by several threads at the same time.</p>
+ *
+ * 2026/10/17
+ *
+ * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
+ * @since 2.0.0
+ * @version 2.0.0
+ */
+public class WaypointSnapshot {
+
+	public static final int VERSION = 1;
+	private static final int MAGIC = 0x57505453;
+	private static final int HEADER_SIZE = 12;
+	private static final int BUFFER_SIZE = 1024 * 1024;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	private Logger logger;
+
+	public WaypointSnapshot() {
+		logger = Logger.getLogger(WaypointSnapshot.class);
+	}
+
+	/**
+	 * Writes the waypoints to the file, an existing file is truncated.
+	 */
+	public void write(Path path, Collection<Waypoint> waypoints) throws IOException {
+		int count = waypoints.size();
+		int[] nameLengths = new int[count];
+		byte[] names = new byte[(int) Math.min(8L * count, Integer.MAX_VALUE - 8)];
+		long namesLength = 0;
+		double[] latitudes = new double[count];
+		double[] longitudes = new double[count];
+		int words = words(count);
+		long[] north = new long[words];
+		long[] east = new long[words];
+		long[] export = new long[words];
+
+		int index = 0;
+		for (Waypoint waypoint : waypoints) {
+			byte[] name = waypoint.getName().getBytes(StandardCharsets.UTF_8);
+			if (namesLength + name.length > names.length) {
+				long length = Math.max(namesLength + name.length, names.length + (long) (names.length >> 1));
+				if (length > Integer.MAX_VALUE - 8) {
+					throw new IOException("the names of the waypoints are too long for a snapshot");
+				}
+				names = Arrays.copyOf(names, (int) length);
+			}
+			System.arraycopy(name, 0, names, (int) namesLength, name.length);
+			namesLength += name.length;
+			nameLengths[index] = name.length;
+			latitudes[index] = waypoint.getLatitude();
+			longitudes[index] = waypoint.getLongitude();
+			if (waypoint.isNorth()) {
+				north[index >>> 6] |= 1L << index;
+			}
+			if (waypoint.isEast()) {
+				east[index >>> 6] |= 1L << index;
+			}
+			if (waypoint.isExport()) {
+				export[index >>> 6] |= 1L << index;
+			}
+			index++;
+		}
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			buffer.clear();
+			buffer.putInt(MAGIC).putInt(VERSION).putInt(count);
+			for (int i = 0; i < count; i++) {
+				ensureRemaining(channel, 4);
+				buffer.putInt(nameLengths[i]);
+			}
+			ensureRemaining(channel, 8);
+			buffer.putLong(namesLength);
+			for (int offset = 0; offset < namesLength; ) {
+				ensureRemaining(channel, 1);
+				int length = (int) Math.min(buffer.remaining(), namesLength - offset);
+				buffer.put(names, offset, length);
+				offset += length;
+			}
+			writeDoubles(channel, latitudes);
+			writeDoubles(channel, longitudes);
+			writeLongs(channel, north);
+			writeLongs(channel, east);
+			writeLongs(channel, export);
+			flush(channel);
+		}
+		logger.debug("saved snapshot of waypoints: " + count);
+	}
+
+	/**
+	 * @return the waypoints of the file, in the order they were written
+	 * @throws ParseException when the file is not a snapshot of a known
+	 * version, is damaged or holds a name twice
+	 */
+	public List<Waypoint> read(Path path) throws IOException, ParseException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			buffer.clear().limit(HEADER_SIZE);
+			fill(channel);
+			if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+				throw new ParseException(path + " is not a waypoint snapshot");
+			}
+			int version = buffer.getInt();
+			if (version != VERSION) {
+				throw new ParseException("unsupported waypoint snapshot version " + version);
+			}
+			int count = buffer.getInt();
+			if (count < 0) {
+				throw new ParseException("damaged waypoint snapshot: negative number of waypoints");
+			}
+
+			int[] nameLengths = new int[count];
+			for (int i = 0; i < count; i++) {
+				nameLengths[i] = next(channel, 4).getInt();
+			}
+			long namesLength = next(channel, 8).getLong();
+			if (namesLength < 0 || namesLength > Integer.MAX_VALUE - 8) {
+				throw new ParseException("damaged waypoint snapshot: bad length of the names");
+			}
+			byte[] names = new byte[(int) namesLength];
+			for (int offset = 0; offset < names.length; ) {
+				ByteBuffer bytes = next(channel, 1);
+				int length = Math.min(bytes.remaining(), names.length - offset);
+				bytes.get(names, offset, length);
+				offset += length;
+			}
+			double[] latitudes = readDoubles(channel, count);
+			double[] longitudes = readDoubles(channel, count);
+			long[] north = readLongs(channel, words(count));
+			long[] east = readLongs(channel, words(count));
+			long[] export = readLongs(channel, words(count));
+
+			List<Waypoint> waypoints = new ArrayList<>(count);
+			Set<String> seen = new HashSet<>(2 * count);
+			int offset = 0;
+			for (int i = 0; i < count; i++) {
+				if (nameLengths[i] < 0 || offset + nameLengths[i] > names.length) {
+					throw new ParseException("damaged waypoint snapshot: bad length of name " + i);
+				}
+				String name = new String(names, offset, nameLengths[i], StandardCharsets.UTF_8);
+				offset += nameLengths[i];
+				if (!seen.add(name)) {
+					throw new ParseException("damaged waypoint snapshot: duplicate name " + name);
+				}
+				try {
+					Waypoint waypoint = new Waypoint(name, longitudes[i], bit(east, i), latitudes[i], bit(north, i));
+					waypoint.setExport(bit(export, i));
+					waypoints.add(waypoint);
+				} catch (InvalidModelStateException e) {
+					throw new ParseException("damaged waypoint snapshot: " + e.getMessage(), e);
+				}
+			}
+			logger.debug("restored snapshot of waypoints: " + count);
+			return waypoints;
+		} catch (EOFException e) {
+			throw new ParseException("damaged waypoint snapshot: " + e.getMessage(), e);
+		}
+	}
+
+	private static int words(int count) {
+		return (count + 63) >>> 6;
+	}
+
+	private static boolean bit(long[] bitmap, int index) {
+		return (bitmap[index >>> 6] & (1L << index)) != 0;
+	}
+
+	private void writeDoubles(FileChannel channel, double[] values) throws IOException {
+		for (int offset = 0; offset < values.length; ) {
+			ensureRemaining(channel, 8);
+			int length = Math.min(buffer.remaining() / 8, values.length - offset);
+			buffer.asDoubleBuffer().put(values, offset, length);
+			buffer.position(buffer.position() + 8 * length);
+			offset += length;
+		}
+	}
+
+	private void writeLongs(FileChannel channel, long[] values) throws IOException {
+		for (int offset = 0; offset < values.length; ) {
+			ensureRemaining(channel, 8);
+			int length = Math.min(buffer.remaining() / 8, values.length - offset);
+			buffer.asLongBuffer().put(values, offset, length);
+			buffer.position(buffer.position() + 8 * length);
+			offset += length;
+		}
+	}
+
+	private double[] readDoubles(FileChannel channel, int count) throws IOException {
+		double[] values = new double[count];
+		for (int offset = 0; offset < count; ) {
+			ByteBuffer bytes = next(channel, 8);
+			int length = Math.min(bytes.remaining() / 8, count - offset);
+			bytes.asDoubleBuffer().get(values, offset, length);
+			bytes.position(bytes.position() + 8 * length);
+			offset += length;
+		}
+		return values;
+	}
+
+	private long[] readLongs(FileChannel channel, int count) throws IOException {
+		long[] values = new long[count];
+		for (int offset = 0; offset < count; ) {
+			ByteBuffer bytes = next(channel, 8);
+			int length = Math.min(bytes.remaining() / 8, count - offset);
+			bytes.asLongBuffer().get(values, offset, length);
+			bytes.position(bytes.position() + 8 * length);
+			offset += length;
+		}
+		return values;
+	}
+
+	private void ensureRemaining(FileChannel channel, int length) throws IOException {
+		if (buffer.remaining() < length) {
+			flush(channel);
+		}
+	}
+
+	private void flush(FileChannel channel) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * @return the buffer holding at least the given number of unread bytes,
+	 * read from the channel when needed
+	 */
+	private ByteBuffer next(FileChannel channel, int length) throws IOException {
+		if (buffer.remaining() < length) {
+			buffer.compact();
+			fill(channel);
+			if (buffer.remaining() < length) {
+				throw new EOFException("unexpected end of the waypoint snapshot");
+			}
+		}
+		return buffer;
+	}
+
+	//reads until the buffer is full or the channel ends, then flips it
+	private void fill(FileChannel channel) throws IOException {
+		while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+		}
+		buffer.flip();
+	}
+}
@@ -0,0 +1,140 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2013 Pieter Van Eeckhout.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.honeyedoak.waypointcoverter.controller.file.parser;
+
+import com.honeyedoak.waypointcoverter.exceptions.ParseException;
+import com.honeyedoak.waypointcoverter.exceptions.ProcessingException;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * BasecampFormat.java (UTF-8)
+ *
+ * <p>The tab separated txt and the comma separated csv exports of BaseCamp.
+ * Both start with a line holding just the byte order mark and hold their
+ * waypoints in the <code>wpt</code> section. The separator is taken from the
+ * header line of that section, so a csv saved as txt parses just the
+ * same.</p>
+ *
+ * 2026/10/17
+ *
+ * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
+ * @since 2.0.0
+ * @version 2.0.0
+ */
+public class BasecampFormat implements WaypointFormat {
+
+	//every section of a BaseCamp export starts with a header line like "ID<separator>name"
+	private static final String HEADER_START = "ID";
+	private Logger logger;
+	private final ChunkedParser chunkedParser;
+
+	public BasecampFormat() {
+		this(new ChunkedParser());
+	}
+
+	/**
+	 * @param chunkedParser parses the waypoints after the header
+	 */
+	public BasecampFormat(ChunkedParser chunkedParser) {
+		logger = Logger.getLogger(BasecampFormat.class);
+		this.chunkedParser = chunkedParser;
+	}
+
+	@Override
+	public String getName() {
+		return "BaseCamp";
+	}
+
+	@Override
+	public String[] getExtensions() {
+		return new String[]{"txt", "csv"};
+	}
+
+	@Override
+	public int score(ByteBuffer head) {
+		int offset = WaypointFormat.skipByteOrderMark(head);
+		if (offset == head.position() || !(WaypointFormat.startsWith(head, offset, "\n") || WaypointFormat.startsWith(head, offset, "\r\n"))) {
+			return NO_MATCH;
+		}
+		while ((offset = WaypointFormat.nextLine(head, offset)) >= 0) {
+			if (WaypointFormat.startsWith(head, offset, HEADER_START + "\t") || WaypointFormat.startsWith(head, offset, HEADER_START + ",")) {
+				return CERTAIN;
+			}
+		}
+		//the head ended before the first section header
+		return CERTAIN / 2;
+	}
+
+	@Override
+	public void parse(FileChannel channel, ByteBuffer head, WaypointSink sink) throws IOException, ParseException, ProcessingException {
+		try (MappedLineReader reader = new MappedLineReader(channel)) {
+			char seperator = skipToWaypoints(reader);
+			if (seperator != 0) {
+				chunkedParser.parse(channel, reader, BasecampLineParser::new, seperator,
+						waypoint -> true, BasecampFormat::isEnd, sink);
+			}
+		}
+	}
+
+	@Override
+	public void parse(InputStream stream, ByteBuffer head, WaypointSink sink) throws IOException, ParseException, ProcessingException {
+		StreamLineReader reader = new StreamLineReader(stream);
+		char seperator = skipToWaypoints(reader);
+		if (seperator != 0) {
+			chunkedParser.parse(reader, new BasecampLineParser(), seperator,
+					waypoint -> true, BasecampFormat::isEnd, sink);
+		}
+	}
+
+	/**
+	 * Reads up to and including the header of the waypoint section.
+	 *
+	 * @return the separator of the section, or 0 when the file has no
+	 * waypoint section
+	 */
+	private char skipToWaypoints(LineSource reader) throws IOException, ParseException {
+		ByteLine line;
+		while ((line = reader.readLine()) != null) {
+			if (line.startsWith("wpt")) {
+				line = reader.readLine();
+				if (line == null || line.length() <= HEADER_START.length() || !line.startsWith(HEADER_START)) {
+					throw new ParseException("The waypoint section has no header");
+				}
+				char seperator = line.charAt(HEADER_START.length());
+				logger.info("recognized basecamp file, seperated by '" + seperator + "'");
+				return seperator;
+			}
+		}
+		return 0;
+	}
+
+	private static boolean isEnd(ByteLine line) {
+		return line.isEmpty() || line.isByteOrderMark();
+	}
+}
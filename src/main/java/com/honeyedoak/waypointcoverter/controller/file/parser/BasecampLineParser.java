@@ -29,19 +29,28 @@ import com.honeyedoak.waypointcoverter.exceptions.ParseException;
 import org.apache.log4j.Logger;
 
 /**
- * MapsourceLineParser.java (UTF-8)
+ * BasecampLineParser.java (UTF-8)
  *
  * <p>Implementation of a LineParser.</p>
  *
+ * <p>Only the latitude (1), longitude (2) and name (7) columns are used, they
+ * are located with a single scan of the line instead of splitting it.</p>
+ *
  * 2013/06/23
  *
  * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
  * @since 1.1.0
- * @version 1.1.0
+ * @version 2.0.0
  */
 public class BasecampLineParser implements LineParser {
 
+    private static final int LATITUDE_FIELD = 1;
+    private static final int LONGITUDE_FIELD = 2;
+    private static final int NAME_FIELD = 7;
+    private static final int[] FIELDS = {LATITUDE_FIELD, LONGITUDE_FIELD, NAME_FIELD};
     private Logger logger;
+    //start and end of the latitude, longitude and name fields of the current line
+    private final int[] bounds = new int[2 * FIELDS.length];
 
     public BasecampLineParser() {
         logger = Logger.getLogger(BasecampLineParser.class);
@@ -49,12 +58,26 @@ public class BasecampLineParser implements LineParser {
 
     @Override
     public Waypoint parseLine(String line, String seperator) throws ParseException {
+        return parseLine(line, LineTokenizer.separatorChar(seperator));
+    }
+
+    /**
+     * Parses the line in a single pass, only the name field is copied.
+     *
+     * @param line the line to parse
+     * @param seperator the field separator
+     * @return the waypoint on the line
+     */
+    @Override
+    public Waypoint parseLine(CharSequence line, char seperator) throws ParseException {
         try {
-            String[] parts = line.split(seperator);
+            if (!LineTokenizer.findFields(line, seperator, FIELDS, bounds)) {
+                throw new ParseException("There was a problem parsing the waypoint: the line does not have enough fields");
+            }
 
-            String name = parts[7].replaceAll("^\"|\"$", "");
-            double latitude = Double.parseDouble(parts[1]);
-            double longitude = Double.parseDouble(parts[2]);
+            String name = unquote(line, bounds[4], bounds[5]);
+            double latitude = LineTokenizer.parseDouble(line, bounds[0], bounds[1]);
+            double longitude = LineTokenizer.parseDouble(line, bounds[2], bounds[3]);
             boolean north, east;
 
             if (latitude < 0) {
@@ -81,4 +104,17 @@ public class BasecampLineParser implements LineParser {
             throw new ParseException(errorString);
         }
     }
+
+    /**
+     * Drops one leading and one trailing double quote, if present.
+     */
+    private String unquote(CharSequence line, int start, int end) {
+        if (start < end && line.charAt(start) == '"') {
+            start++;
+        }
+        if (start < end && line.charAt(end - 1) == '"') {
+            end--;
+        }
+        return line.subSequence(start, end).toString();
+    }
 }
@@ -0,0 +1,125 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2013 Pieter Van Eeckhout.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.honeyedoak.waypointcoverter.controller.file.parser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * ByteLine.java (UTF-8)
+ *
+ * <p>A line of a file, read straight from the bytes of a (mapped) buffer.
+ * Every byte is one char, as in ISO-8859-1, which is all the line parsers
+ * need to find separators and digits. Only {@link #toString()} decodes the
+ * bytes, with the charset of the file, so a name in a UTF-8 file still comes
+ * out right.</p>
+ *
+ * <p>A ByteLine is a view: it is only valid until the next line is read from
+ * the same reader and must be copied with toString to be kept.</p>
+ *
+ * 2026/10/17
+ *
+ * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
+ * @since 2.0.0
+ * @version 2.0.0
+ */
+public final class ByteLine implements CharSequence {
+
+	private ByteBuffer buffer;
+	private int offset;
+	private int length;
+	private Charset charset;
+
+	ByteLine() {
+		this.charset = StandardCharsets.ISO_8859_1;
+	}
+
+	ByteLine(ByteBuffer buffer, int offset, int length, Charset charset) {
+		set(buffer, offset, length, charset);
+	}
+
+	final void set(ByteBuffer buffer, int offset, int length, Charset charset) {
+		this.buffer = buffer;
+		this.offset = offset;
+		this.length = length;
+		this.charset = charset;
+	}
+
+	@Override
+	public int length() {
+		return length;
+	}
+
+	public boolean isEmpty() {
+		return length == 0;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || index >= length) {
+			throw new IndexOutOfBoundsException("index: " + index + ", length: " + length);
+		}
+		return (char) (buffer.get(offset + index) & 0xFF);
+	}
+
+	@Override
+	public ByteLine subSequence(int start, int end) {
+		if (start < 0 || end > length || start > end) {
+			throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + length);
+		}
+		return new ByteLine(buffer, offset + start, end - start, charset);
+	}
+
+	public boolean startsWith(String prefix) {
+		if (prefix.length() > length) {
+			return false;
+		}
+		for (int i = 0; i < prefix.length(); i++) {
+			if ((buffer.get(offset + i) & 0xFF) != prefix.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return whether the line consists of nothing but a UTF-8 byte order mark
+	 */
+	public boolean isByteOrderMark() {
+		return length == 3 && MappedLineReader.isByteOrderMark(buffer, offset);
+	}
+
+	/**
+	 * @return the line decoded with the charset of its file
+	 */
+	@Override
+	public String toString() {
+		byte[] bytes = new byte[length];
+		for (int i = 0; i < length; i++) {
+			bytes[i] = buffer.get(offset + i);
+		}
+		return new String(bytes, charset);
+	}
+}
@@ -0,0 +1,257 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2013 Pieter Van Eeckhout.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.honeyedoak.waypointcoverter.controller.file.parser;
+
+import com.honeyedoak.waypointcoverter.exceptions.ParseException;
+import com.honeyedoak.waypointcoverter.exceptions.ProcessingException;
+import com.honeyedoak.waypointcoverter.model.Waypoint;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * ChunkedParser.java (UTF-8)
+ *
+ * <p>Parses the body of a line based file, the part after the header, on a
+ * ForkJoinPool. The body is cut into chunks of bytes, every chunk parses the
+ * lines that start inside it with its own LineParser. The chunks are handed
+ * to the sink in file order, on the calling thread, so the sink sees exactly
+ * what a sequential parse would give it.</p>
+ *
+ * <p>Only a bounded number of chunks is parsed ahead of the sink, a large
+ * file is never held in memory as a whole. Small bodies, and pools with a
+ * single thread, are parsed sequentially.</p>
+ *
+ * 2026/10/17
+ *
+ * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
+ * @since 2.0.0
+ * @version 2.0.0
+ */
+public class ChunkedParser {
+
+	public static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+	//chunks parsed ahead of the sink, per thread of the pool
+	private static final int CHUNKS_PER_THREAD = 2;
+	private Logger logger;
+	private final ForkJoinPool pool;
+	private final int chunkSize;
+
+	/**
+	 * Parses on the common pool with the default chunk size.
+	 */
+	public ChunkedParser() {
+		this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * @param pool the pool the chunks are parsed on
+	 * @param chunkSize the size of a chunk in bytes
+	 */
+	public ChunkedParser(ForkJoinPool pool, int chunkSize) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("chunk size must be positive: " + chunkSize);
+		}
+		logger = Logger.getLogger(ChunkedParser.class);
+		this.pool = pool;
+		this.chunkSize = chunkSize;
+	}
+
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * Parses the rest of the file, starting at the position of the reader.
+	 * Lines that are not a waypoint are skipped, the body ends at the end of
+	 * the file or at the first end line.
+	 *
+	 * @param channel the channel the reader reads from
+	 * @param reader positioned at the first line of the body
+	 * @param parsers creates a line parser for every chunk
+	 * @param seperator the field separator
+	 * @param isWaypoint tells which lines hold a waypoint
+	 * @param isEnd tells which line ends the body
+	 * @param sink receives the waypoints in file order
+	 * @return the number of parsed waypoints
+	 * @throws ProcessingException when the sink refused a waypoint
+	 */
+	public int parse(FileChannel channel, MappedLineReader reader, Supplier<? extends LineParser> parsers, char seperator,
+			Predicate<ByteLine> isWaypoint, Predicate<ByteLine> isEnd, WaypointSink sink) throws IOException, ParseException, ProcessingException {
+		long start = reader.getPosition();
+		long end = channel.size();
+
+		if (pool.getParallelism() < 2 || end - start < 2L * chunkSize) {
+			return parseSequentially(reader, parsers.get(), seperator, isWaypoint, isEnd, sink);
+		}
+
+		int maxPending = CHUNKS_PER_THREAD * pool.getParallelism();
+		ArrayDeque<Chunk> pending = new ArrayDeque<>(maxPending);
+		int waypointCount = 0;
+		int chunkCount = 0;
+		long next = start;
+		try {
+			while (next < end || !pending.isEmpty()) {
+				while (next < end && pending.size() < maxPending) {
+					long chunkEnd = Math.min(end, next + chunkSize);
+					Chunk chunk = new Chunk(channel, next, chunkEnd, next == start, end, reader.getCharset(),
+							parsers, seperator, isWaypoint, isEnd);
+					pool.execute(chunk);
+					pending.add(chunk);
+					next = chunkEnd;
+					chunkCount++;
+				}
+
+				Chunk chunk = pending.poll();
+				List<Waypoint> waypoints = chunk.join();
+				chunk.rethrow();
+				for (Waypoint waypoint : waypoints) {
+					sink.accept(waypoint);
+				}
+				waypointCount += waypoints.size();
+				if (chunk.ended) {
+					break;
+				}
+			}
+		} finally {
+			for (Chunk chunk : pending) {
+				chunk.cancel(false);
+			}
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("parsed " + waypointCount + " waypoints from " + chunkCount + " chunks of " + chunkSize + " bytes");
+		}
+		return waypointCount;
+	}
+
+	/**
+	 * Parses the rest of a stream, starting at the next line of the reader.
+	 * A stream can not be cut into chunks, it is always parsed on the calling
+	 * thread.
+	 *
+	 * @param reader positioned at the first line of the body
+	 * @param lineParser parses the waypoint lines
+	 * @param seperator the field separator
+	 * @param isWaypoint tells which lines hold a waypoint
+	 * @param isEnd tells which line ends the body
+	 * @param sink receives the waypoints in stream order
+	 * @return the number of parsed waypoints
+	 * @throws ProcessingException when the sink refused a waypoint
+	 */
+	public int parse(LineSource reader, LineParser lineParser, char seperator,
+			Predicate<ByteLine> isWaypoint, Predicate<ByteLine> isEnd, WaypointSink sink) throws IOException, ParseException, ProcessingException {
+		return parseSequentially(reader, lineParser, seperator, isWaypoint, isEnd, sink);
+	}
+
+	private int parseSequentially(LineSource reader, LineParser lineParser, char seperator,
+			Predicate<ByteLine> isWaypoint, Predicate<ByteLine> isEnd, WaypointSink sink) throws IOException, ParseException, ProcessingException {
+		int waypointCount = 0;
+		ByteLine line;
+		while ((line = reader.readLine()) != null && !isEnd.test(line)) {
+			if (isWaypoint.test(line)) {
+				sink.accept(lineParser.parseLine(line, seperator));
+				waypointCount++;
+			}
+		}
+		return waypointCount;
+	}
+
+	/**
+	 * Parses the lines that start between two offsets. A line that starts in
+	 * the chunk is parsed completely, even when it runs into the next chunk.
+	 */
+	private static final class Chunk extends RecursiveTask<List<Waypoint>> {
+
+		private static final long serialVersionUID = 1L;
+		private final FileChannel channel;
+		private final long start;
+		private final long end;
+		private final boolean first;
+		private final long fileEnd;
+		private final Charset charset;
+		private final Supplier<? extends LineParser> parsers;
+		private final char seperator;
+		private final Predicate<ByteLine> isWaypoint;
+		private final Predicate<ByteLine> isEnd;
+		private Exception exception;
+		private boolean ended;
+
+		private Chunk(FileChannel channel, long start, long end, boolean first, long fileEnd, Charset charset,
+				Supplier<? extends LineParser> parsers, char seperator, Predicate<ByteLine> isWaypoint, Predicate<ByteLine> isEnd) {
+			this.channel = channel;
+			this.start = start;
+			this.end = end;
+			this.first = first;
+			this.fileEnd = fileEnd;
+			this.charset = charset;
+			this.parsers = parsers;
+			this.seperator = seperator;
+			this.isWaypoint = isWaypoint;
+			this.isEnd = isEnd;
+		}
+
+		@Override
+		protected List<Waypoint> compute() {
+			List<Waypoint> waypoints = new ArrayList<>();
+			LineParser lineParser = parsers.get();
+			//starting one byte early, the first line read is the rest of the line
+			//that belongs to the previous chunk, or empty when a line starts at start
+			try (MappedLineReader reader = new MappedLineReader(channel, first ? start : start - 1, fileEnd, charset)) {
+				if (!first) {
+					reader.readLine();
+				}
+				while (reader.getPosition() < end) {
+					ByteLine line = reader.readLine();
+					if (isEnd.test(line)) {
+						ended = true;
+						break;
+					}
+					if (isWaypoint.test(line)) {
+						waypoints.add(lineParser.parseLine(line, seperator));
+					}
+				}
+			} catch (IOException | ParseException e) {
+				exception = e;
+			}
+			return waypoints;
+		}
+
+		private void rethrow() throws IOException, ParseException {
+			if (exception instanceof IOException) {
+				throw (IOException) exception;
+			} else if (exception instanceof ParseException) {
+				throw (ParseException) exception;
+			}
+		}
+	}
+}
@@ -26,92 +26,44 @@ package com.honeyedoak.waypointcoverter.controller.file.parser;
 
 import com.honeyedoak.waypointcoverter.exceptions.FatalException;
 import com.honeyedoak.waypointcoverter.exceptions.FileException;
-import com.honeyedoak.waypointcoverter.model.Waypoint;
 import com.honeyedoak.waypointcoverter.exceptions.ParseException;
+import com.honeyedoak.waypointcoverter.exceptions.ProcessingException;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-import org.apache.log4j.Logger;
 
 /**
  * CsvFileParser.java (UTF-8)
  *
  * <p>A FileParser implementation.</p>
  *
+ * <p>Reads BaseCamp csv files only. The file is memory mapped and parsed
+ * straight from the mapped bytes, the waypoints after the header of a large
+ * file are parsed in parallel chunks. Use the ParserRegistry to read a file
+ * of any known format.</p>
+ *
  * 2013/06/23
  *
  * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
  * @since 1.1.0
- * @version 1.1.0
+ * @version 2.0.0
  */
 public class CsvFileParser implements FileParser {
-    
-    private Logger logger;
-    private LineParser lineParser;
+
+    private final ParserRegistry registry;
 
     public CsvFileParser() {
-        logger = Logger.getLogger(CsvFileParser.class);
+        this(new ChunkedParser());
     }
-    
-    @Override
-    public List<Waypoint> parseFile(File file) throws FileException, ParseException, FatalException {
-        BufferedReader br = null;
-        List<Waypoint> waypointList = new ArrayList<>();
 
-        try {
-            FileReader fr = new FileReader(file);
-            br = new BufferedReader(fr);
-            String line = br.readLine();
-            if (line == null) {
-                logger.error("The file is empty");
-                throw new ParseException("The file is empty");
-            } else {
-                if (line.equals("\uFEFF")) {
-                    while ((line = br.readLine()) != null) {
-                        if (line.startsWith("wpt")) {
-                            logger.info("recognized basecamp csv file");
-                            lineParser = new BasecampLineParser();
-                            br.readLine();
-                            line = br.readLine();
-                            while (!line.isEmpty() && !line.equals("\uFEFF")) {
-                                waypointList.add(lineParser.parseLine(line, ","));
-                                line = br.readLine();
-                            }
-                            break;
-                        }
-                    }
-                } else {
-                    throw new ParseException("The received file format was not recognised");
-                }
-            }
-        } catch (FileNotFoundException e) {
-            String error = "The requested file was not found";
-            logger.error(error);
-            logger.debug(e.getMessage());
-            throw new FileException(error);
-        } catch (IOException e) {
-            String error = "There was a problem reading the requested file";
-            logger.debug(e.getMessage());
-            logger.error(error);
-            throw new FileException(error);
-        } finally {
-            if (br != null) {
-                try {
-                    br.close();
-                } catch (IOException e) {
-                    String errorMessage = "Could not successfully close the file reader";
-                    logger.fatal(errorMessage);
-                    logger.debug(e.getMessage());
-                    throw new FatalException(errorMessage);
-                }
-            }
-        }
+    /**
+     * @param chunkedParser parses the waypoints after the header
+     */
+    public CsvFileParser(ChunkedParser chunkedParser) {
+        registry = new ParserRegistry(new BasecampFormat(chunkedParser));
+    }
 
-        return waypointList;
-    }   
+    @Override
+    public void parseFile(File file, WaypointSink sink) throws FileException, ParseException, FatalException, ProcessingException {
+        registry.parseFile(file, sink);
+    }
 }
@@ -25,10 +25,12 @@ package com.honeyedoak.waypointcoverter.controller.file.parser;
 
 import com.honeyedoak.waypointcoverter.exceptions.FatalException;
 import com.honeyedoak.waypointcoverter.exceptions.FileException;
+import com.honeyedoak.waypointcoverter.exceptions.ProcessingException;
 import com.honeyedoak.waypointcoverter.model.Waypoint;
 import com.honeyedoak.waypointcoverter.exceptions.ParseException;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -40,9 +42,31 @@ import java.util.List;
  *
  * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
  * @since 1.1.0
- * @version 1.1.0
+ * @version 2.0.0
  */
 public interface FileParser {
-        
-    public List<Waypoint> parseFile(File file) throws FileException, ParseException, FatalException;
+
+    /**
+     * Parses the file and collects all the waypoints in a list.
+     */
+    public default List<Waypoint> parseFile(File file) throws FileException, ParseException, FatalException {
+        List<Waypoint> waypointList = new ArrayList<>();
+        try {
+            parseFile(file, waypointList::add);
+        } catch (ProcessingException e) {
+            //adding to a list can not fail, getting here means something is very wrong
+            throw new FatalException(e.getMessage(), e);
+        }
+        return waypointList;
+    }
+
+    /**
+     * Parses the file and hands every waypoint to the sink as soon as it is
+     * read, without keeping the waypoints of the file in memory.
+     *
+     * @param file the file to parse
+     * @param sink receives the waypoints in file order
+     * @throws ProcessingException when the sink refused a waypoint
+     */
+    public void parseFile(File file, WaypointSink sink) throws FileException, ParseException, FatalException, ProcessingException;
 }
@@ -26,35 +26,45 @@ package com.honeyedoak.waypointcoverter.controller.file.parser;
 import com.honeyedoak.waypointcoverter.exceptions.FileException;
 import com.honeyedoak.waypointcoverter.exceptions.InvalidModelStateException;
 import com.honeyedoak.waypointcoverter.exceptions.ParseException;
+import com.honeyedoak.waypointcoverter.exceptions.ProcessingException;
 import com.honeyedoak.waypointcoverter.model.Waypoint;
 import org.apache.log4j.Logger;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.InputStream;
+import java.nio.file.Files;
 
 /**
  * GpxFileParser.java (UTF-8)
  *
  * <p>A FileParser implementation.</p>
  *
+ * <p>The file is read with a StAX stream reader, every <code>wpt</code>
+ * element is turned into a Waypoint as soon as its end tag is read. No
+ * document tree is built, so the memory used while reading does not depend
+ * on the size of the file.</p>
+ *
  * 2013/06/23
  *
  * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
  * @since 1.1.0
- * @version 1.1.0
+ * @version 2.0.0
  */
 public class GpxFileParser implements FileParser {
-    
+
+    private static final String ROOT_ELEMENT = "gpx";
+    private static final String WAYPOINT_ELEMENT = "wpt";
+    private static final String NAME_ELEMENT = "name";
+    private static final String LATITUDE_ATTRIBUTE = "lat";
+    private static final String LONGITUDE_ATTRIBUTE = "lon";
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
     private Logger logger;
 
     public GpxFileParser() {
@@ -62,74 +72,163 @@ public class GpxFileParser implements FileParser {
     }
     
     @Override
-    public List<Waypoint> parseFile(File file) throws FileException, ParseException {
-        List<Waypoint> waypointList = new ArrayList<>();
-        try {
-            if (!file.exists()) {
-                String error = "The requested file was not found";
-                logger.error(error);
-                logger.debug(file.getAbsolutePath());
-                throw new FileException(error);
-            }
+    public void parseFile(File file, WaypointSink sink) throws FileException, ParseException, ProcessingException {
+        if (!file.exists()) {
+            String error = "The requested file was not found";
+            logger.error(error);
+            logger.debug(file.getAbsolutePath());
+            throw new FileException(error);
+        }
 
-            DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder documentBuilder = documentBuilderFactory.newDocumentBuilder();
-            Document document = documentBuilder.parse(file);
-
-            Element rootElement = document.getDocumentElement();
-            rootElement.normalize();
-
-            NodeList waypointNodeLists = rootElement.getElementsByTagName("wpt");
-            logger.debug("found " + waypointNodeLists.getLength() + "waypoints in the file");
-
-            if (waypointNodeLists.getLength() > 0) {
-                for (int i = 0; i < waypointNodeLists.getLength(); i++) {
-                    Node waypointNode = waypointNodeLists.item(i);
-
-                    if (waypointNode.getNodeType() == Node.ELEMENT_NODE) {
-                        Element waypointElement = (Element) waypointNode;
-                        NodeList nameNodeList = waypointElement.getElementsByTagName("name");
-                        String name = nameNodeList.item(0).getChildNodes().item(0).getNodeValue();
-                        double latitude = Double.parseDouble(waypointElement.getAttribute("lat"));
-                        double longitude = Double.parseDouble(waypointElement.getAttribute("lon"));
-                        boolean north, east;
-
-                        if (latitude < 0) {
-                            north = false;
-                            latitude *= -1;
-                        } else {
-                            north = true;
-                        }
-
-                        if (longitude < 0) {
-                            east = false;
-                            longitude *= -1;
-                        } else {
-                            east = true;
-                        }
-
-                        waypointList.add(new Waypoint(name, longitude, east, latitude, north));
+        try (InputStream inputStream = Files.newInputStream(file.toPath())) {
+            parseStream(inputStream, sink);
+        } catch (IOException e) {
+            String error = "There was a problem reading the requested file";
+            logger.debug(e.getMessage());
+            logger.error(error);
+            throw new FileException(error);
+        }
+    }
+
+    /**
+     * Parses a GPX document from the stream. The stream is buffered here and
+     * is not closed.
+     *
+     * @param stream the GPX document
+     * @param sink receives the waypoints in document order
+     * @throws ProcessingException when the sink refused a waypoint
+     */
+    public void parseStream(InputStream stream, WaypointSink sink) throws ParseException, ProcessingException {
+        int waypointCount = 0;
+
+        try {
+            InputStream inputStream = new BufferedInputStream(stream, READ_BUFFER_SIZE);
+            XMLStreamReader reader = createXMLInputFactory().createXMLStreamReader(inputStream);
+            try {
+                //the root element must be gpx, whatever its namespace
+                while (reader.hasNext() && reader.next() != XMLStreamConstants.START_ELEMENT) {
+                }
+                if (!reader.isStartElement() || !ROOT_ELEMENT.equals(reader.getLocalName())) {
+                    throw new ParseException("The file is not a GPX file, its root element is not " + ROOT_ELEMENT);
+                }
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT && isElement(reader, WAYPOINT_ELEMENT)) {
+                        sink.accept(readWaypoint(reader));
+                        waypointCount++;
                     }
                 }
+            } finally {
+                reader.close();
             }
+            logger.debug("found " + waypointCount + " waypoints in the file");
 
-        } catch (ParserConfigurationException | SAXException | InvalidModelStateException ex) {
+        } catch (XMLStreamException | InvalidModelStateException ex) {
             String error = "There was a problem parsing the requested file: " + ex.getMessage();
             logger.debug(ex.getMessage());
             logger.error(error);
             throw new ParseException(error);
-        } catch (IOException e) {
-            String error = "There was a problem reading the requested file";
-            logger.debug(e.getMessage());
-            logger.error(error);
-            throw new FileException(error);
         } catch (NumberFormatException e) {
             String errorString = "There was a problem parsing the waypoint: could not parse The coordinate formatting";
             logger.error(errorString);
             logger.debug(e.getMessage());
             throw new ParseException(errorString);
         }
+    }
+
+    /**
+     * Reads the <code>wpt</code> element the reader is positioned on, up to
+     * and including its end tag.
+     *
+     * @param reader a reader positioned on the start tag of a waypoint
+     * @return the waypoint described by the element
+     */
+    private Waypoint readWaypoint(XMLStreamReader reader) throws XMLStreamException, InvalidModelStateException, ParseException {
+        double latitude = parseCoordinate(reader.getAttributeValue(null, LATITUDE_ATTRIBUTE));
+        double longitude = parseCoordinate(reader.getAttributeValue(null, LONGITUDE_ATTRIBUTE));
+        String name = null;
+        int depth = 1;
+
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if (name == null && isElement(reader, NAME_ELEMENT)) {
+                    //reading the text consumes the end tag of the name element
+                    name = readText(reader);
+                } else {
+                    depth++;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+
+        if (name == null) {
+            throw new ParseException("There was a problem parsing the waypoint: no name element found");
+        }
+
+        boolean north, east;
+
+        if (latitude < 0) {
+            north = false;
+            latitude *= -1;
+        } else {
+            north = true;
+        }
 
-        return waypointList;
-    }   
+        if (longitude < 0) {
+            east = false;
+            longitude *= -1;
+        } else {
+            east = true;
+        }
+
+        return new Waypoint(name, longitude, east, latitude, north);
+    }
+
+    /**
+     * Collects the text content of the current element, including the text of
+     * nested elements, and leaves the reader on its end tag.
+     */
+    private String readText(XMLStreamReader reader) throws XMLStreamException {
+        StringBuilder builder = new StringBuilder();
+        int depth = 1;
+
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                    || event == XMLStreamConstants.SPACE) {
+                builder.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+            } else if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+
+        return builder.toString();
+    }
+
+    private double parseCoordinate(String value) {
+        if (value == null) {
+            throw new NumberFormatException("missing coordinate attribute");
+        }
+        return Double.parseDouble(value);
+    }
+
+    /**
+     * Matches elements the same way the former DOM implementation did: on the
+     * unprefixed tag name.
+     */
+    private boolean isElement(XMLStreamReader reader, String localName) {
+        String prefix = reader.getPrefix();
+        return localName.equals(reader.getLocalName()) && (prefix == null || prefix.isEmpty());
+    }
+
+    private XMLInputFactory createXMLInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        //waypoint files never need a DTD, refusing them also keeps external entities out
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
 }
@@ -0,0 +1,160 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2013 Pieter Van Eeckhout.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.honeyedoak.waypointcoverter.controller.file.parser;
+
+import com.honeyedoak.waypointcoverter.exceptions.ParseException;
+import com.honeyedoak.waypointcoverter.exceptions.ProcessingException;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+
+/**
+ * GpxFormat.java (UTF-8)
+ *
+ * <p>GPX files, recognised by the <code>gpx</code> root element. Parsed with
+ * the GpxFileParser.</p>
+ *
+ * 2026/10/17
+ *
+ * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
+ * @since 2.0.0
+ * @version 2.0.0
+ */
+public class GpxFormat implements WaypointFormat {
+
+	private final GpxFileParser gpxFileParser;
+
+	public GpxFormat() {
+		gpxFileParser = new GpxFileParser();
+	}
+
+	@Override
+	public String getName() {
+		return "GPX";
+	}
+
+	@Override
+	public String[] getExtensions() {
+		return new String[]{"gpx"};
+	}
+
+	@Override
+	public int score(ByteBuffer head) {
+		int offset = skipWhitespace(head, WaypointFormat.skipByteOrderMark(head));
+		if (!WaypointFormat.startsWith(head, offset, "<")) {
+			return NO_MATCH;
+		}
+		//skip the declaration, processing instructions, comments and doctype
+		while (WaypointFormat.startsWith(head, offset, "<?") || WaypointFormat.startsWith(head, offset, "<!")) {
+			if (WaypointFormat.startsWith(head, offset, "<?")) {
+				offset = skipPast(head, offset + 2, "?>");
+			} else if (WaypointFormat.startsWith(head, offset, "<!--")) {
+				offset = skipPast(head, offset + 4, "-->");
+			} else {
+				offset = skipDeclaration(head, offset + 2);
+			}
+			if (offset < 0) {
+				//xml, but the root element lies beyond the head
+				return CERTAIN / 4;
+			}
+			offset = skipWhitespace(head, offset);
+		}
+		if (!WaypointFormat.startsWith(head, offset, "<")) {
+			return NO_MATCH;
+		}
+
+		int nameStart = offset + 1;
+		int nameEnd = nameStart;
+		while (nameEnd < head.limit() && !isNameEnd(head.get(nameEnd))) {
+			nameEnd++;
+		}
+		if (nameEnd == head.limit()) {
+			//the name of the root element runs beyond the head
+			return CERTAIN / 4;
+		}
+		for (int i = nameStart; i < nameEnd; i++) {
+			if (head.get(i) == ':') {
+				nameStart = i + 1;
+			}
+		}
+		return nameEnd - nameStart == 3 && WaypointFormat.startsWith(head, nameStart, "gpx") ? CERTAIN : NO_MATCH;
+	}
+
+	private static int skipWhitespace(ByteBuffer head, int offset) {
+		while (offset < head.limit() && Character.isWhitespace(head.get(offset))) {
+			offset++;
+		}
+		return offset;
+	}
+
+	/**
+	 * @return the offset after the end, or -1 when the end is not in the head
+	 */
+	private static int skipPast(ByteBuffer head, int offset, String end) {
+		for (int i = offset; i < head.limit(); i++) {
+			if (WaypointFormat.startsWith(head, i, end)) {
+				return i + end.length();
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Skips a declaration such as a doctype, with its internal subset.
+	 *
+	 * @return the offset after the declaration, or -1 when its end is not in
+	 * the head
+	 */
+	private static int skipDeclaration(ByteBuffer head, int offset) {
+		int depth = 0;
+		for (int i = offset; i < head.limit(); i++) {
+			byte b = head.get(i);
+			if (b == '[') {
+				depth++;
+			} else if (b == ']') {
+				depth--;
+			} else if (b == '>' && depth <= 0) {
+				return i + 1;
+			}
+		}
+		return -1;
+	}
+
+	private static boolean isNameEnd(byte b) {
+		return b == '>' || b == '/' || Character.isWhitespace(b);
+	}
+
+	@Override
+	public void parse(FileChannel channel, ByteBuffer head, WaypointSink sink) throws ParseException, ProcessingException {
+		//the stream reads from the current position, the head was read without moving it
+		gpxFileParser.parseStream(Channels.newInputStream(channel), sink);
+	}
+
+	@Override
+	public void parse(InputStream stream, ByteBuffer head, WaypointSink sink) throws ParseException, ProcessingException {
+		gpxFileParser.parseStream(stream, sink);
+	}
+}
@@ -35,9 +35,19 @@ import com.honeyedoak.waypointcoverter.exceptions.ParseException;
  *
  * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
  * @since 1.1.0
- * @version 1.1.0
+ * @version 2.0.0
  */
 public interface LineParser {
     
     public Waypoint parseLine(String line, String seperator) throws ParseException;
+
+    /**
+     * Parses a line without copying it, the line may be a view that changes
+     * after the call.
+     *
+     * @param line the line to parse
+     * @param seperator the field separator character
+     * @return the waypoint on the line
+     */
+    public Waypoint parseLine(CharSequence line, char seperator) throws ParseException;
 }
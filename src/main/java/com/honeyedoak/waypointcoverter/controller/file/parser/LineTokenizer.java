@@ -0,0 +1,186 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2013 Pieter Van Eeckhout.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.honeyedoak.waypointcoverter.controller.file.parser;
+
+/**
+ * LineTokenizer.java (UTF-8)
+ *
+ * <p>Single pass, regex free helpers for the line parsers. Fields are located
+ * by index in one scan of the line and numbers are parsed in place, so only
+ * the fields that are needed ever become Strings.</p>
+ *
+ * <p>A field that starts with a double quote runs up to the closing quote that
+ * is followed by a separator or the end of the line, separators inside the
+ * quotes belong to the field. Without such a closing quote the field simply
+ * ends at the next separator.</p>
+ *
+ * 2026/10/17
+ *
+ * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
+ * @since 2.0.0
+ * @version 2.0.0
+ */
+public final class LineTokenizer {
+
+	//the largest mantissa a double holds exactly
+	private static final long MAX_EXACT_MANTISSA = 1L << 53;
+	private static final double[] POWERS_OF_TEN = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+		1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	private LineTokenizer() {
+	}
+
+	/**
+	 * Translates the separator as it was passed to String.split to the single
+	 * character it stands for.
+	 *
+	 * @param seperator a single character, optionally escaped with a backslash
+	 * ("\\t" for a tab)
+	 * @return the separator character
+	 */
+	public static char separatorChar(String seperator) {
+		if (seperator.length() == 1) {
+			return seperator.charAt(0);
+		}
+		if (seperator.length() == 2 && seperator.charAt(0) == '\\') {
+			char escaped = seperator.charAt(1);
+			return escaped == 't' ? '\t' : escaped;
+		}
+		throw new IllegalArgumentException("unsupported separator: " + seperator);
+	}
+
+	/**
+	 * Finds the bounds of the requested fields in one pass over the line.
+	 *
+	 * @param line the line to scan
+	 * @param separator the field separator
+	 * @param fields the indices of the requested fields, in ascending order
+	 * @param bounds receives the start (inclusive) and end (exclusive) of every
+	 * requested field, two entries per field
+	 * @return false when the line has fewer fields than requested
+	 */
+	public static boolean findFields(CharSequence line, char separator, int[] fields, int[] bounds) {
+		int length = line.length();
+		int fieldIndex = 0;
+		int found = 0;
+		int start = 0;
+
+		while (found < fields.length) {
+			int end = fieldEnd(line, separator, start, length);
+			if (fieldIndex == fields[found]) {
+				bounds[2 * found] = start;
+				bounds[2 * found + 1] = end;
+				found++;
+			}
+			if (end >= length) {
+				return found == fields.length;
+			}
+			start = end + 1;
+			fieldIndex++;
+		}
+		return true;
+	}
+
+	private static int fieldEnd(CharSequence line, char separator, int start, int length) {
+		if (start < length && line.charAt(start) == '"') {
+			for (int i = start + 1; i < length; i++) {
+				if (line.charAt(i) == '"' && (i + 1 == length || line.charAt(i + 1) == separator)) {
+					return i + 1;
+				}
+			}
+		}
+		for (int i = start; i < length; i++) {
+			if (line.charAt(i) == separator) {
+				return i;
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * Finds the next occurrence of the character.
+	 *
+	 * @return the index of the character, or end when it does not occur
+	 */
+	public static int indexOf(CharSequence line, char c, int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (line.charAt(i) == c) {
+				return i;
+			}
+		}
+		return end;
+	}
+
+	/**
+	 * Parses the decimal number between start and end. Plain decimals with at
+	 * most 15 to 16 significant digits are parsed in place, exactly; anything
+	 * else (more digits, an exponent, surrounding white space) is handed to
+	 * Double.parseDouble.
+	 *
+	 * @throws NumberFormatException when the text is not a number
+	 */
+	public static double parseDouble(CharSequence line, int start, int end) {
+		int i = start;
+		boolean negative = false;
+		if (i < end && (line.charAt(i) == '-' || line.charAt(i) == '+')) {
+			negative = line.charAt(i) == '-';
+			i++;
+		}
+
+		long mantissa = 0;
+		int fractionDigits = 0;
+		boolean digits = false;
+		boolean point = false;
+		for (; i < end; i++) {
+			char c = line.charAt(i);
+			if (c >= '0' && c <= '9') {
+				mantissa = mantissa * 10 + (c - '0');
+				digits = true;
+				if (point) {
+					fractionDigits++;
+				}
+				if (mantissa > MAX_EXACT_MANTISSA || fractionDigits >= POWERS_OF_TEN.length) {
+					return parseDoubleSlow(line, start, end);
+				}
+			} else if (c == '.' && !point) {
+				point = true;
+			} else {
+				return parseDoubleSlow(line, start, end);
+			}
+		}
+
+		if (!digits) {
+			return parseDoubleSlow(line, start, end);
+		}
+		//both operands are exact, so the division is correctly rounded
+		double value = mantissa / POWERS_OF_TEN[fractionDigits];
+		return negative ? -value : value;
+	}
+
+	private static double parseDoubleSlow(CharSequence line, int start, int end) {
+		return Double.parseDouble(line.subSequence(start, end).toString());
+	}
+}
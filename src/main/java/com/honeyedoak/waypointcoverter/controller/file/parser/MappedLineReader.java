@@ -0,0 +1,256 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2013 Pieter Van Eeckhout.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.honeyedoak.waypointcoverter.controller.file.parser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * MappedLineReader.java (UTF-8)
+ *
+ * <p>Reads the lines of a file from memory mapped windows of the file. Line
+ * ends are found in the mapped bytes and the lines are handed out as
+ * {@link ByteLine} views on the mapping, nothing is decoded or copied.</p>
+ *
+ * <p>A file that starts with a UTF-8 byte order mark is read as UTF-8, the
+ * mark itself is skipped. Any other file is read as ISO-8859-1. Lines end
+ * with "\n" or "\r\n".</p>
+ *
+ * <p>A mapping keeps the file open, and locked on Windows, until it is
+ * unmapped, and a process may only hold a limited number of mappings
+ * (vm.max_map_count on Linux). A window is therefore unmapped as soon as the
+ * reader moves past it or is closed, where the JVM allows it. Lines handed
+ * out before must not be used after that.</p>
+ *
+ * 2026/10/17
+ *
+ * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
+ * @since 2.0.0
+ * @version 2.0.0
+ */
+public class MappedLineReader implements Closeable, LineSource {
+
+	public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+	//null when the JVM does not let mappings be released early
+	private static final MethodHandle UNMAPPER = createUnmapper();
+	private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+	private static final byte[] BYTE_ORDER_MARK = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+	private final FileChannel channel;
+	private final long end;
+	private final boolean byteOrderMark;
+	private final Charset charset;
+	private final ByteLine line;
+	private int windowSize;
+	private MappedByteBuffer window;
+	private long windowStart;
+	private long position;
+
+	/**
+	 * Reads the whole file.
+	 *
+	 * @param channel an open channel on the file, it is not closed by the
+	 * reader
+	 */
+	public MappedLineReader(FileChannel channel) throws IOException {
+		this.channel = channel;
+		this.end = channel.size();
+		this.windowSize = DEFAULT_WINDOW_SIZE;
+		this.line = new ByteLine();
+
+		ByteBuffer head = ByteBuffer.allocate(BYTE_ORDER_MARK.length);
+		long offset = 0;
+		while (head.hasRemaining() && channel.read(head, offset) > 0) {
+			offset = head.position();
+		}
+		byteOrderMark = !head.hasRemaining() && isByteOrderMark(head, 0);
+		charset = byteOrderMark ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1;
+		position = byteOrderMark ? BYTE_ORDER_MARK.length : 0;
+		windowStart = position;
+	}
+
+	/**
+	 * Reads the lines between two offsets of the file. The start offset must
+	 * be the start of a line.
+	 *
+	 * @param channel an open channel on the file, it is not closed by the
+	 * reader
+	 * @param start the offset of the first line
+	 * @param end the offset where reading stops
+	 * @param charset the charset the lines are decoded with
+	 */
+	public MappedLineReader(FileChannel channel, long start, long end, Charset charset) {
+		this.channel = channel;
+		this.end = end;
+		this.windowSize = DEFAULT_WINDOW_SIZE;
+		this.line = new ByteLine();
+		this.byteOrderMark = false;
+		this.charset = charset;
+		this.position = start;
+		this.windowStart = start;
+	}
+
+	static boolean isByteOrderMark(ByteBuffer buffer, int offset) {
+		for (int i = 0; i < BYTE_ORDER_MARK.length; i++) {
+			if (buffer.get(offset + i) != BYTE_ORDER_MARK[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return whether the file starts with a UTF-8 byte order mark
+	 */
+	public boolean hasByteOrderMark() {
+		return byteOrderMark;
+	}
+
+	public Charset getCharset() {
+		return charset;
+	}
+
+	/**
+	 * @return the file offset of the next line
+	 */
+	public long getPosition() {
+		return position;
+	}
+
+	/**
+	 * Reads the next line. The returned line is reused by the next call.
+	 *
+	 * @return the next line without its line end, or null at the end of the
+	 * file
+	 */
+	@Override
+	public ByteLine readLine() throws IOException {
+		if (position >= end) {
+			return null;
+		}
+
+		while (true) {
+			if (window == null || position - windowStart >= window.limit()) {
+				map(position);
+			}
+			int lineStart = (int) (position - windowStart);
+			int limit = window.limit();
+			for (int i = lineStart; i < limit; i++) {
+				if (window.get(i) == '\n') {
+					position = windowStart + i + 1;
+					return setLine(lineStart, i);
+				}
+			}
+
+			if (windowStart + limit >= end) {
+				//the last line of the file has no line end
+				position = end;
+				return setLine(lineStart, limit);
+			}
+			if (lineStart == 0) {
+				//the line does not fit in a window
+				windowSize = (int) Math.min(Integer.MAX_VALUE, 2L * windowSize);
+			}
+			map(position);
+		}
+	}
+
+	private ByteLine setLine(int start, int lineEnd) {
+		if (lineEnd > start && window.get(lineEnd - 1) == '\r') {
+			lineEnd--;
+		}
+		line.set(window, start, lineEnd - start, charset);
+		return line;
+	}
+
+	private void map(long offset) throws IOException {
+		long size = Math.min(windowSize, end - offset);
+		unmap(window);
+		window = null;
+		window = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+		windowStart = offset;
+	}
+
+	/**
+	 * Releases the mapping, the channel stays open.
+	 */
+	@Override
+	public void close() {
+		//the reused line must not point into released memory
+		line.set(EMPTY, 0, 0, charset);
+		unmap(window);
+		window = null;
+	}
+
+	/**
+	 * Unmaps the buffer right away instead of when it is garbage collected.
+	 * The buffer must not be used afterwards. Does nothing when the JVM does
+	 * not allow it, the mapping is then released by the garbage collector.
+	 */
+	static void unmap(MappedByteBuffer buffer) {
+		if (buffer == null || UNMAPPER == null) {
+			return;
+		}
+		try {
+			UNMAPPER.invoke(buffer);
+		} catch (Throwable e) {
+			//left to the garbage collector
+		}
+	}
+
+	private static MethodHandle createUnmapper() {
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		try {
+			//Java 9 and later
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+			theUnsafe.setAccessible(true);
+			return lookup.findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+					.bindTo(theUnsafe.get(null))
+					.asType(MethodType.methodType(void.class, MappedByteBuffer.class));
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			//Java 8
+		}
+		try {
+			Class<?> directBufferClass = Class.forName("sun.nio.ch.DirectBuffer");
+			Method cleanerMethod = directBufferClass.getMethod("cleaner");
+			Method cleanMethod = cleanerMethod.getReturnType().getMethod("clean");
+			MethodHandle cleaner = lookup.unreflect(cleanerMethod);
+			MethodHandle clean = lookup.unreflect(cleanMethod);
+			return MethodHandles.filterReturnValue(cleaner, clean)
+					.asType(MethodType.methodType(void.class, MappedByteBuffer.class));
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2013 Pieter Van Eeckhout.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.honeyedoak.waypointcoverter.controller.file.parser;
+
+import com.honeyedoak.waypointcoverter.exceptions.ParseException;
+import com.honeyedoak.waypointcoverter.exceptions.ProcessingException;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * MapsourceFormat.java (UTF-8)
+ *
+ * <p>The tab separated txt export of MapSource, recognised by the
+ * <code>Grid</code> line it starts with.</p>
+ *
+ * 2026/10/17
+ *
+ * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
+ * @since 2.0.0
+ * @version 2.0.0
+ */
+public class MapsourceFormat implements WaypointFormat {
+
+	private Logger logger;
+	private final ChunkedParser chunkedParser;
+
+	public MapsourceFormat() {
+		this(new ChunkedParser());
+	}
+
+	/**
+	 * @param chunkedParser parses the waypoints after the first one
+	 */
+	public MapsourceFormat(ChunkedParser chunkedParser) {
+		logger = Logger.getLogger(MapsourceFormat.class);
+		this.chunkedParser = chunkedParser;
+	}
+
+	@Override
+	public String getName() {
+		return "MapSource";
+	}
+
+	@Override
+	public String[] getExtensions() {
+		return new String[]{"txt"};
+	}
+
+	@Override
+	public int score(ByteBuffer head) {
+		return WaypointFormat.startsWith(head, WaypointFormat.skipByteOrderMark(head), "Grid\t") ? CERTAIN : NO_MATCH;
+	}
+
+	@Override
+	public void parse(FileChannel channel, ByteBuffer head, WaypointSink sink) throws IOException, ParseException, ProcessingException {
+		logger.info("recognized Mapsource txt file");
+		try (MappedLineReader reader = new MappedLineReader(channel)) {
+			MapsourceLineParser mapsourceLineParser = new MapsourceLineParser();
+			ByteLine line;
+			//the first waypoint settles the coordinate format for the chunks
+			while ((line = reader.readLine()) != null) {
+				if (line.startsWith("Waypoint")) {
+					sink.accept(mapsourceLineParser.parseLine(line, '\t'));
+					break;
+				}
+			}
+			if (line != null) {
+				MapsourceLineParser.CoordinateFormat coordinateFormat = mapsourceLineParser.getCoordinateFormat();
+				chunkedParser.parse(channel, reader, () -> new MapsourceLineParser(coordinateFormat), '\t',
+						waypoint -> waypoint.startsWith("Waypoint"), end -> false, sink);
+			}
+		}
+	}
+
+	@Override
+	public void parse(InputStream stream, ByteBuffer head, WaypointSink sink) throws IOException, ParseException, ProcessingException {
+		logger.info("recognized Mapsource txt stream");
+		//a stream is parsed by one line parser, the first waypoint settles its coordinate format
+		chunkedParser.parse(new StreamLineReader(stream), new MapsourceLineParser(), '\t',
+				waypoint -> waypoint.startsWith("Waypoint"), end -> false, sink);
+	}
+}
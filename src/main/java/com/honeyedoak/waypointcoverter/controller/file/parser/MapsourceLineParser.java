@@ -28,62 +28,124 @@ import com.honeyedoak.waypointcoverter.exceptions.ParseException;
 import com.honeyedoak.waypointcoverter.model.Waypoint;
 import org.apache.log4j.Logger;
 
-import java.util.Arrays;
-
 /**
  * MapsourceLineParser.java (UTF-8)
  * <p>
  * <p>Implementation of a LineParser.</p>
  * <p>
+ * <p>The coordinate format is recognised on the first line and kept for the
+ * rest of the file. Lines are scanned once, without regular expressions.</p>
+ * <p>
  * 2013/06/23
  *
  * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
- * @version 1.1.0
+ * @version 2.0.0
  * @since 1.1.0
  */
 public class MapsourceLineParser implements LineParser {
 
+	/**
+	 * The coordinate layouts MapSource writes in the position column.
+	 */
+	public enum CoordinateFormat {
+		/**
+		 * hddd.ddddd, e.g. N51.49180 E3.63650
+		 */
+		DIGITAL(2),
+		/**
+		 * hddd mm.mmm, e.g. N51 29.508 E3 38.190
+		 */
+		DEGREES(4);
+
+		private final int tokenCount;
+
+		private CoordinateFormat(int tokenCount) {
+			this.tokenCount = tokenCount;
+		}
+	}
+
 	private static final String ERROR_STRING = "There was a problem parsing the waypoint: could not parse The coordinate formatting of line:%n%n%s";
+	private static final int NAME_FIELD = 1;
+	private static final int POSITION_FIELD = 4;
+	private static final int[] FIELDS = {NAME_FIELD, POSITION_FIELD};
+	private static final int MAX_POSITION_TOKENS = 4;
 	private Logger logger;
-
+	private CoordinateFormat coordinateFormat;
+	//start and end of the name and position fields of the current line
+	private final int[] bounds = new int[2 * FIELDS.length];
+	//start and end of the space separated parts of the position
+	private final int[] positionBounds = new int[2 * (MAX_POSITION_TOKENS + 1)];
+
+	/**
+	 * Creates a parser that takes the coordinate format from the first line it
+	 * parses and expects it on all the following lines.
+	 */
 	public MapsourceLineParser() {
+		this(null);
+	}
+
+	/**
+	 * @param coordinateFormat the coordinate format of the lines, or null to
+	 * detect it on the first line
+	 */
+	public MapsourceLineParser(CoordinateFormat coordinateFormat) {
 		logger = Logger.getLogger(MapsourceLineParser.class);
+		this.coordinateFormat = coordinateFormat;
 	}
 
+	/**
+	 * @return the coordinate format of the parsed lines, null when no line
+	 * was parsed yet
+	 */
+	public CoordinateFormat getCoordinateFormat() {
+		return coordinateFormat;
+	}
 
 	@Override
 	public Waypoint parseLine(String line, String seperator) throws ParseException {
+		return parseLine(line, LineTokenizer.separatorChar(seperator));
+	}
+
+	/**
+	 * Parses the line in a single pass, only the name field is copied.
+	 *
+	 * @param line the line to parse
+	 * @param seperator the field separator
+	 * @return the waypoint on the line
+	 */
+	@Override
+	public Waypoint parseLine(CharSequence line, char seperator) throws ParseException {
 		boolean north, east;
 		double longitude, latitude;
 		String name;
 
-		String[] parts = line.split(seperator);
-		String[] position = parts[4].split(" ");
+		if (!LineTokenizer.findFields(line, seperator, FIELDS, bounds)) {
+			throw parseException(line, "the line does not have enough fields");
+		}
+		name = line.subSequence(bounds[0], bounds[1]).toString();
 
-		name = parts[1];
+		int tokenCount = splitPosition(line, bounds[2], bounds[3]);
+		if (coordinateFormat == null) {
+			coordinateFormat = detectCoordinateFormat(line, tokenCount);
+		} else if (tokenCount != coordinateFormat.tokenCount) {
+			throw parseException(line, "expected the " + coordinateFormat + " coordinate format");
+		}
 
 		try {
-			if (position.length == 2) {
-				logger.info("recognized digital coordinate format");
-				north = position[0].startsWith("N");
-				east = position[1].startsWith("E");
-
-				latitude = Double.parseDouble(position[0].substring(1));
-				longitude = Double.parseDouble(position[1].substring(1));
-			} else if (position.length == 4) {
-				logger.info("recognized degree coordinate format");
-				north = position[0].startsWith("N");
-				east = position[2].startsWith("E");
-
-				latitude = Double.parseDouble(position[0].substring(1));
-				latitude += Double.parseDouble(position[1]) / 60;
-				longitude = Double.parseDouble(position[2].substring(1));
-				longitude += Double.parseDouble(position[3]) / 60;
+			if (coordinateFormat == CoordinateFormat.DIGITAL) {
+				north = hemisphere(line, 0) == 'N';
+				east = hemisphere(line, 1) == 'E';
+
+				latitude = LineTokenizer.parseDouble(line, positionBounds[0] + 1, positionBounds[1]);
+				longitude = LineTokenizer.parseDouble(line, positionBounds[2] + 1, positionBounds[3]);
 			} else {
-				String errorString = String.format(ERROR_STRING, line);
-				logger.error(errorString);
-				logger.debug(Arrays.deepToString(position));
-				throw new ParseException(errorString);
+				north = hemisphere(line, 0) == 'N';
+				east = hemisphere(line, 2) == 'E';
+
+				latitude = LineTokenizer.parseDouble(line, positionBounds[0] + 1, positionBounds[1]);
+				latitude += LineTokenizer.parseDouble(line, positionBounds[2], positionBounds[3]) / 60;
+				longitude = LineTokenizer.parseDouble(line, positionBounds[4] + 1, positionBounds[5]);
+				longitude += LineTokenizer.parseDouble(line, positionBounds[6], positionBounds[7]) / 60;
 			}
 		} catch (NumberFormatException e) {
 			String errorString = String.format(ERROR_STRING, line);
@@ -100,9 +162,62 @@ public class MapsourceLineParser implements LineParser {
 			throw new ParseException("There was a problem parsing the waypoint: " + ex.getMessage());
 		}
 
-		logger.debug(waypoint.toString());
+		//formatting a waypoint costs more than parsing it, only at trace level
+		if (logger.isTraceEnabled()) {
+			logger.trace(waypoint.toString());
+		}
 
 		return waypoint;
 	}
 
+	/**
+	 * Splits the position on single spaces, like String.split(" ") trailing
+	 * empty parts are ignored.
+	 *
+	 * @return the number of parts, at most one more than the largest format
+	 * needs
+	 */
+	private int splitPosition(CharSequence line, int start, int end) {
+		int tokenCount = 0;
+		int tokenStart = start;
+		while (tokenCount <= MAX_POSITION_TOKENS) {
+			int tokenEnd = LineTokenizer.indexOf(line, ' ', tokenStart, end);
+			positionBounds[2 * tokenCount] = tokenStart;
+			positionBounds[2 * tokenCount + 1] = tokenEnd;
+			tokenCount++;
+			if (tokenEnd >= end) {
+				break;
+			}
+			tokenStart = tokenEnd + 1;
+		}
+		while (tokenCount > 0 && positionBounds[2 * tokenCount - 2] == positionBounds[2 * tokenCount - 1]) {
+			tokenCount--;
+		}
+		return tokenCount;
+	}
+
+	private CoordinateFormat detectCoordinateFormat(CharSequence line, int tokenCount) throws ParseException {
+		for (CoordinateFormat format : CoordinateFormat.values()) {
+			if (format.tokenCount == tokenCount) {
+				logger.info("recognized " + format.name().toLowerCase() + " coordinate format");
+				return format;
+			}
+		}
+		throw parseException(line, "unknown coordinate format");
+	}
+
+	private char hemisphere(CharSequence line, int token) {
+		int start = positionBounds[2 * token];
+		if (start >= positionBounds[2 * token + 1]) {
+			throw new NumberFormatException("empty coordinate");
+		}
+		return line.charAt(start);
+	}
+
+	private ParseException parseException(CharSequence line, String reason) {
+		String errorString = String.format(ERROR_STRING, line);
+		logger.error(errorString);
+		logger.debug(reason);
+		return new ParseException(errorString);
+	}
 }
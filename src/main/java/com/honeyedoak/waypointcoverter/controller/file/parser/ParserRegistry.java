@@ -0,0 +1,389 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2013 Pieter Van Eeckhout.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.honeyedoak.waypointcoverter.controller.file.parser;
+
+import com.honeyedoak.waypointcoverter.exceptions.FatalException;
+import com.honeyedoak.waypointcoverter.exceptions.FileException;
+import com.honeyedoak.waypointcoverter.exceptions.ParseException;
+import com.honeyedoak.waypointcoverter.exceptions.ProcessingException;
+import com.honeyedoak.waypointcoverter.model.Waypoint;
+import org.apache.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+
+/**
+ * ParserRegistry.java (UTF-8)
+ *
+ * <p>A FileParser that recognises the format of a file by its content
+ * instead of by its extension.</p>
+ *
+ * <p>The file is opened once and its first bytes are read into a head. Every
+ * registered WaypointFormat scores the head, the format with the highest
+ * score parses the file from the channel that is already open. The extension
+ * of the file only breaks a tie between two formats, so a file with the
+ * wrong extension, or none at all, still converts.</p>
+ *
+ * <p>Gzip files and zip archives are recognised the same way and are
+ * decompressed while they are parsed, the entries of a zip archive one after
+ * the other. Entries in an unknown format are skipped.</p>
+ *
+ * <p>A registry keeps no state between files, one registry can parse files
+ * on several threads at once. A WaypointFormat must be thread safe for the
+ * same reason.</p>
+ *
+ * 2026/10/17
+ *
+ * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
+ * @since 2.0.0
+ * @version 2.0.0
+ */
+public class ParserRegistry implements FileParser {
+
+	public static final int DEFAULT_HEAD_SIZE = 4 * 1024;
+	private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+	private Logger logger;
+	private final List<WaypointFormat> formats;
+	private final int headSize;
+
+	/**
+	 * Uses the formats found by the ServiceLoader.
+	 */
+	public ParserRegistry() {
+		this(loadFormats(), DEFAULT_HEAD_SIZE);
+	}
+
+	/**
+	 * @param formats the formats to choose from, earlier formats win a tie
+	 */
+	public ParserRegistry(WaypointFormat... formats) {
+		this(Arrays.asList(formats), DEFAULT_HEAD_SIZE);
+	}
+
+	/**
+	 * @param formats the formats to choose from, earlier formats win a tie
+	 * @param headSize the number of bytes the formats are scored on
+	 */
+	public ParserRegistry(List<WaypointFormat> formats, int headSize) {
+		if (headSize <= 0) {
+			throw new IllegalArgumentException("head size must be positive: " + headSize);
+		}
+		logger = Logger.getLogger(ParserRegistry.class);
+		this.formats = Collections.unmodifiableList(new ArrayList<>(formats));
+		this.headSize = headSize;
+	}
+
+	public List<WaypointFormat> getFormats() {
+		return formats;
+	}
+
+	@Override
+	public void parseFile(File file, WaypointSink sink) throws FileException, ParseException, FatalException, ProcessingException {
+		long start = System.nanoTime();
+		CountingSink countingSink = new CountingSink(sink);
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer head = readHead(channel);
+			if (isGzip(head) || isZip(head)) {
+				//the channel is still at the start of the file
+				parseStream(Channels.newInputStream(channel), file.getName(), countingSink);
+			} else {
+				detect(head, file.getName()).parse(channel, head, countingSink);
+			}
+			//one line per file, the parsers do not log per line
+			logger.info("read " + countingSink.count + " waypoints from " + file.getName()
+					+ " in " + (System.nanoTime() - start) / 1000000 + " ms");
+		} catch (NoSuchFileException e) {
+			String error = "The requested file was not found";
+			logger.error(error);
+			logger.debug(e.getMessage());
+			throw new FileException(error);
+		} catch (FileException e) {
+			throw e;
+		} catch (IOException e) {
+			String error = "There was a problem reading the requested file";
+			logger.debug(e.getMessage());
+			logger.error(error);
+			throw new FileException(error);
+		}
+	}
+
+	/**
+	 * Parses a stream of any known format. A gzip stream is decompressed while
+	 * it is parsed, the entries of a zip stream are parsed one after the
+	 * other. Nothing is written to disk.
+	 *
+	 * @param stream the file from its first byte on, it is not closed
+	 * @param name the name of the file, only used to break a tie between
+	 * formats
+	 * @param sink receives the waypoints in file order
+	 * @throws ProcessingException when the sink refused a waypoint
+	 */
+	public void parseStream(InputStream stream, String name, WaypointSink sink) throws FileException, ParseException, FatalException, ProcessingException {
+		try {
+			if (!parseStream(stream, name, sink, true)) {
+				throw new ParseException("The received file format was not recognised");
+			}
+		} catch (ZipException e) {
+			String error = "The archive is damaged: " + e.getMessage();
+			logger.error(error);
+			throw new ParseException(error);
+		} catch (FileException e) {
+			throw e;
+		} catch (IOException e) {
+			String error = "There was a problem reading the requested file";
+			logger.debug(e.getMessage());
+			logger.error(error);
+			throw new FileException(error);
+		}
+	}
+
+	/**
+	 * @param required whether an unknown format is an error, or only makes
+	 * the stream be skipped
+	 * @return false when the stream was skipped
+	 */
+	private boolean parseStream(InputStream stream, String name, WaypointSink sink, boolean required) throws IOException, FileException, ParseException, FatalException, ProcessingException {
+		InputStream input = new BufferedInputStream(stream, Math.max(headSize, STREAM_BUFFER_SIZE));
+		ByteBuffer head = peekHead(input);
+
+		if (isGzip(head)) {
+			logger.info("decompressing gzip file " + name);
+			try (InputStream gzip = new GZIPInputStream(new UnclosableInputStream(input), STREAM_BUFFER_SIZE)) {
+				return parseStream(gzip, removeExtension(name, "gz"), sink, required);
+			}
+		} else if (isZip(head)) {
+			return parseZip(input, name, sink);
+		}
+
+		WaypointFormat format = required ? detect(head, name) : find(head, name);
+		if (format == null) {
+			logger.warn("skipped " + name + ", its format was not recognised");
+			return false;
+		}
+		format.parse(input, head, sink);
+		return true;
+	}
+
+	/**
+	 * Parses the entries of a zip archive in archive order, entries in an
+	 * unknown format are skipped.
+	 *
+	 * @return true, an archive without any waypoint file is an error
+	 */
+	private boolean parseZip(InputStream input, String name, WaypointSink sink) throws IOException, FileException, ParseException, FatalException, ProcessingException {
+		int entryCount = 0;
+		try (ZipInputStream zip = new ZipInputStream(new UnclosableInputStream(input))) {
+			ZipEntry entry;
+			while ((entry = zip.getNextEntry()) != null) {
+				if (!entry.isDirectory()) {
+					logger.info("reading " + entry.getName() + " from " + name);
+					//the zip stream ends at the end of the entry, closing it would close the archive
+					if (parseStream(new UnclosableInputStream(zip), entry.getName(), sink, false)) {
+						entryCount++;
+					}
+				}
+				zip.closeEntry();
+			}
+		}
+		if (entryCount == 0) {
+			throw new ParseException("The archive holds no waypoint file");
+		}
+		return true;
+	}
+
+	/**
+	 * Picks the format of a file.
+	 *
+	 * @param head the first bytes of the file
+	 * @param fileName the name of the file, only used to break a tie
+	 * @return the format with the highest score
+	 * @throws ParseException when no format recognises the head
+	 */
+	public WaypointFormat detect(ByteBuffer head, String fileName) throws ParseException {
+		if (!head.hasRemaining()) {
+			logger.error("The file is empty");
+			throw new ParseException("The file is empty");
+		}
+
+		WaypointFormat best = find(head, fileName);
+		if (best == null) {
+			throw new ParseException("The received file format was not recognised");
+		}
+		logger.info("recognized " + best.getName() + " file");
+		return best;
+	}
+
+	/**
+	 * @return the format with the highest score, or null when no format
+	 * recognises the head
+	 */
+	private WaypointFormat find(ByteBuffer head, String fileName) {
+		if (!head.hasRemaining()) {
+			return null;
+		}
+
+		String extension = extensionOf(fileName);
+		WaypointFormat best = null;
+		int bestScore = WaypointFormat.NO_MATCH;
+		for (WaypointFormat format : formats) {
+			//every format gets its own view, none of them can move the head of another
+			int score = format.score(head.duplicate());
+			if (score <= WaypointFormat.NO_MATCH) {
+				continue;
+			}
+			//a point out of a hundred is enough to break a tie, never to overrule the content
+			score = score * 2 + (Arrays.asList(format.getExtensions()).contains(extension) ? 1 : 0);
+			if (score > bestScore) {
+				best = format;
+				bestScore = score;
+			}
+		}
+		return best;
+	}
+
+	private ByteBuffer readHead(FileChannel channel) throws IOException {
+		ByteBuffer head = ByteBuffer.allocate((int) Math.min(headSize, channel.size()));
+		//positional reads leave the channel at the start of the file for the format
+		long position = 0;
+		while (head.hasRemaining()) {
+			int read = channel.read(head, position);
+			if (read < 0) {
+				break;
+			}
+			position += read;
+		}
+		head.flip();
+		return head.asReadOnlyBuffer();
+	}
+
+	/**
+	 * Reads the head of a stream and moves the stream back to its start.
+	 */
+	private ByteBuffer peekHead(InputStream input) throws IOException {
+		byte[] bytes = new byte[headSize];
+		input.mark(headSize);
+		int length = 0;
+		int read;
+		while (length < headSize && (read = input.read(bytes, length, headSize - length)) >= 0) {
+			length += read;
+		}
+		input.reset();
+		return ByteBuffer.wrap(bytes, 0, length).asReadOnlyBuffer();
+	}
+
+	private static boolean isGzip(ByteBuffer head) {
+		return head.remaining() >= 2 && (head.get(head.position()) & 0xFF) == 0x1F
+				&& (head.get(head.position() + 1) & 0xFF) == 0x8B;
+	}
+
+	private static boolean isZip(ByteBuffer head) {
+		//a local file header, or the end record of an empty archive
+		return WaypointFormat.startsWith(head, head.position(), "PK\u0003\u0004")
+				|| WaypointFormat.startsWith(head, head.position(), "PK\u0005\u0006");
+	}
+
+	private static String removeExtension(String fileName, String extension) {
+		String suffix = "." + extension;
+		if (fileName != null && fileName.toLowerCase(Locale.ROOT).endsWith(suffix)) {
+			return fileName.substring(0, fileName.length() - suffix.length());
+		}
+		return fileName;
+	}
+
+	private static String extensionOf(String fileName) {
+		int dot = fileName == null ? -1 : fileName.lastIndexOf('.');
+		return dot < 0 ? "" : fileName.substring(dot + 1).toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Counts the waypoints on their way to the sink.
+	 */
+	private static final class CountingSink implements WaypointSink {
+
+		private final WaypointSink sink;
+		private int count;
+
+		private CountingSink(WaypointSink sink) {
+			this.sink = sink;
+		}
+
+		@Override
+		public void accept(Waypoint waypoint) throws ProcessingException {
+			sink.accept(waypoint);
+			count++;
+		}
+	}
+
+	/**
+	 * Keeps a stream that belongs to someone else open when the stream that
+	 * reads from it is closed.
+	 */
+	private static final class UnclosableInputStream extends FilterInputStream {
+
+		private UnclosableInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+	private static List<WaypointFormat> loadFormats() {
+		List<WaypointFormat> formats = new ArrayList<>();
+		try {
+			for (WaypointFormat format : ServiceLoader.load(WaypointFormat.class)) {
+				formats.add(format);
+			}
+		} catch (ServiceConfigurationError e) {
+			Logger.getLogger(ParserRegistry.class).error("could not load the waypoint formats: " + e.getMessage());
+		}
+		if (formats.isEmpty()) {
+			//running without the service file, e.g. from a bare class directory
+			formats.add(new BasecampFormat());
+			formats.add(new MapsourceFormat());
+			formats.add(new GpxFormat());
+		}
+		return formats;
+	}
+}
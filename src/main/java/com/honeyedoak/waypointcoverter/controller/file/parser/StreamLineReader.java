@@ -0,0 +1,162 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2013 Pieter Van Eeckhout.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.honeyedoak.waypointcoverter.controller.file.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * StreamLineReader.java (UTF-8)
+ *
+ * <p>Reads the lines of a stream, for input that can not be memory mapped
+ * like a decompressed archive. The bytes are read into one buffer that is
+ * reused for every line, it only grows for a line that does not fit.</p>
+ *
+ * <p>A leading UTF-8 byte order mark is skipped and makes the lines decode
+ * as UTF-8, the same as the MappedLineReader does for a file.</p>
+ *
+ * 2026/10/17
+ *
+ * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
+ * @since 2.0.0
+ * @version 2.0.0
+ */
+public class StreamLineReader implements LineSource {
+
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+	private final InputStream stream;
+	private final ByteLine line;
+	private final boolean byteOrderMark;
+	private final Charset charset;
+	private byte[] bytes;
+	private ByteBuffer buffer;
+	//the bytes between start and end are read but not handed out yet
+	private int start;
+	private int end;
+	private boolean endOfStream;
+
+	/**
+	 * @param stream the stream to read, it is not closed by the reader
+	 */
+	public StreamLineReader(InputStream stream) throws IOException {
+		this(stream, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * @param stream the stream to read, it is not closed by the reader
+	 * @param bufferSize the initial size of the buffer
+	 */
+	public StreamLineReader(InputStream stream, int bufferSize) throws IOException {
+		this.stream = stream;
+		this.line = new ByteLine();
+		this.bytes = new byte[Math.max(bufferSize, 16)];
+		this.buffer = ByteBuffer.wrap(bytes);
+
+		while (end < 3 && fill()) {
+			//a stream may hand out fewer bytes than asked
+		}
+		byteOrderMark = end >= 3 && MappedLineReader.isByteOrderMark(buffer, 0);
+		charset = byteOrderMark ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1;
+		start = byteOrderMark ? 3 : 0;
+	}
+
+	/**
+	 * @return whether the stream starts with a UTF-8 byte order mark
+	 */
+	public boolean hasByteOrderMark() {
+		return byteOrderMark;
+	}
+
+	public Charset getCharset() {
+		return charset;
+	}
+
+	@Override
+	public ByteLine readLine() throws IOException {
+		int scan = start;
+		while (true) {
+			for (int i = scan; i < end; i++) {
+				if (bytes[i] == '\n') {
+					ByteLine result = setLine(start, i);
+					start = i + 1;
+					return result;
+				}
+			}
+			scan = end;
+
+			if (endOfStream) {
+				if (start >= end) {
+					return null;
+				}
+				//the last line of the stream has no line end
+				ByteLine result = setLine(start, end);
+				start = end;
+				return result;
+			}
+
+			int consumed = start;
+			if (!fill()) {
+				endOfStream = true;
+			}
+			scan -= consumed - start;
+		}
+	}
+
+	/**
+	 * Reads more bytes behind the unread ones, first moving them to the front
+	 * of the buffer, or into a larger one when they fill it.
+	 *
+	 * @return false at the end of the stream
+	 */
+	private boolean fill() throws IOException {
+		if (start > 0) {
+			System.arraycopy(bytes, start, bytes, 0, end - start);
+			end -= start;
+			start = 0;
+		}
+		if (end == bytes.length) {
+			byte[] larger = new byte[(int) Math.min(Integer.MAX_VALUE - 8, 2L * bytes.length)];
+			System.arraycopy(bytes, 0, larger, 0, end);
+			bytes = larger;
+			buffer = ByteBuffer.wrap(bytes);
+		}
+		int read = stream.read(bytes, end, bytes.length - end);
+		if (read < 0) {
+			return false;
+		}
+		end += read;
+		return true;
+	}
+
+	private ByteLine setLine(int lineStart, int lineEnd) {
+		if (lineEnd > lineStart && bytes[lineEnd - 1] == '\r') {
+			lineEnd--;
+		}
+		line.set(buffer, lineStart, lineEnd - lineStart, charset);
+		return line;
+	}
+}
@@ -24,89 +24,46 @@
  */
 package com.honeyedoak.waypointcoverter.controller.file.parser;
 
+import com.honeyedoak.waypointcoverter.exceptions.FatalException;
 import com.honeyedoak.waypointcoverter.exceptions.FileException;
 import com.honeyedoak.waypointcoverter.exceptions.ParseException;
-import com.honeyedoak.waypointcoverter.model.Waypoint;
-import org.apache.log4j.Logger;
+import com.honeyedoak.waypointcoverter.exceptions.ProcessingException;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * TxtFileParser.java (UTF-8)
- * <p>
+ *
  * <p>A FileParser implementation.</p>
- * <p>
+ *
+ * <p>Reads BaseCamp and MapSource txt files only. The file is memory mapped and parsed
+ * straight from the mapped bytes, the waypoints after the header of a large
+ * file are parsed in parallel chunks. Use the ParserRegistry to read a file
+ * of any known format.</p>
+ *
  * 2013/06/23
  *
  * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
- * @version 1.1.0
  * @since 1.1.0
+ * @version 2.0.0
  */
 public class TxtFileParser implements FileParser {
 
-	private Logger logger;
-	private LineParser lineParser;
+	private final ParserRegistry registry;
 
 	public TxtFileParser() {
-		logger = Logger.getLogger(TxtFileParser.class);
+		this(new ChunkedParser());
 	}
 
-	@Override
-	public List<Waypoint> parseFile(File file) throws FileException, ParseException {
-		List<Waypoint> waypointList = new ArrayList<>();
-
-		try (BufferedReader br = Files.newBufferedReader(file.toPath(), StandardCharsets.ISO_8859_1)) {
-			String line = br.readLine();
-			if (line == null) {
-				logger.error("The file is empty");
-				throw new ParseException("The file is empty");
-			} else {
-				if (line.equals("\uFEFF")) {
-					while ((line = br.readLine()) != null) {
-						if (line.startsWith("wpt")) {
-							logger.info("recognized basecamp txt file");
-							lineParser = new BasecampLineParser();
-							br.readLine();
-							line = br.readLine();
-							while (!line.isEmpty() && !line.equals("\uFEFF")) {
-								waypointList.add(lineParser.parseLine(line, "\\t"));
-								line = br.readLine();
-							}
-							break;
-						}
-					}
-				} else if (line.startsWith("Grid")) {
-					while ((line = br.readLine()) != null) {
-						if (line.startsWith("Waypoint")) {
-							logger.info("recognized Mapsource txt file");
-							lineParser = new MapsourceLineParser();
-							waypointList.add(lineParser.parseLine(line, "\\t"));
-						}
-					}
-				} else {
-					throw new ParseException("The received file format was not recognised");
-				}
-			}
-		} catch (FileNotFoundException e) {
-			String error = "The requested file was not found";
-			logger.error(error);
-			logger.debug(e.getMessage());
-			throw new FileException(error);
-		} catch (IOException e) {
-			String error = "There was a problem reading the requested file";
-			logger.debug(e.getMessage());
-			logger.error(error);
-			throw new FileException(error);
-		}
-
-		return waypointList;
+	/**
+	 * @param chunkedParser parses the waypoints after the header
+	 */
+	public TxtFileParser(ChunkedParser chunkedParser) {
+		registry = new ParserRegistry(new BasecampFormat(chunkedParser), new MapsourceFormat(chunkedParser));
 	}
 
+	@Override
+	public void parseFile(File file, WaypointSink sink) throws FileException, ParseException, FatalException, ProcessingException {
+		registry.parseFile(file, sink);
+	}
 }
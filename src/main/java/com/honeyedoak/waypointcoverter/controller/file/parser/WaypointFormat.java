@@ -0,0 +1,148 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2013 Pieter Van Eeckhout.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.honeyedoak.waypointcoverter.controller.file.parser;
+
+import com.honeyedoak.waypointcoverter.exceptions.FatalException;
+import com.honeyedoak.waypointcoverter.exceptions.FileException;
+import com.honeyedoak.waypointcoverter.exceptions.ParseException;
+import com.honeyedoak.waypointcoverter.exceptions.ProcessingException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * WaypointFormat.java (UTF-8)
+ *
+ * <p>A waypoint file format the ParserRegistry can recognise. Formats are
+ * found with a ServiceLoader, a format from another jar is registered by
+ * listing it in
+ * <code>META-INF/services/com.honeyedoak.waypointcoverter.controller.file.parser.WaypointFormat</code>.
+ * An implementation needs a public constructor without arguments, and must
+ * be thread safe: one instance parses files on several threads at once.</p>
+ *
+ * <p>The registry reads the head of a file once and lets every format score
+ * it. The winning format parses the file from the channel the head was read
+ * from, or from a stream when the file is compressed.</p>
+ *
+ * 2026/10/17
+ *
+ * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
+ * @since 2.0.0
+ * @version 2.0.0
+ */
+public interface WaypointFormat {
+
+	/**
+	 * The score of a head that is certainly not in the format.
+	 */
+	public static final int NO_MATCH = 0;
+
+	/**
+	 * The score of a head that is certainly in the format.
+	 */
+	public static final int CERTAIN = 100;
+
+	/**
+	 * @return a short name for the format, used in the log
+	 */
+	public String getName();
+
+	/**
+	 * @return the file extensions the format is usually saved with, in lower
+	 * case and without the dot. Only used to break a tie between two scores.
+	 */
+	public String[] getExtensions();
+
+	/**
+	 * Tells how likely it is that a file starting with the head is in the
+	 * format. The head must not be changed.
+	 *
+	 * @param head the first bytes of the file, from position to limit
+	 * @return {@link #NO_MATCH} up to {@link #CERTAIN}
+	 */
+	public int score(ByteBuffer head);
+
+	/**
+	 * Parses the file. The channel is owned by the caller and is closed by it.
+	 *
+	 * @param channel the file, it may be read from any position
+	 * @param head the same head the format scored
+	 * @param sink receives the waypoints in file order
+	 * @throws ProcessingException when the sink refused a waypoint
+	 */
+	public void parse(FileChannel channel, ByteBuffer head, WaypointSink sink) throws IOException, FileException, ParseException, FatalException, ProcessingException;
+
+	/**
+	 * Parses a stream, like an entry of an archive that is decompressed while
+	 * it is read. The stream is owned by the caller and must not be closed.
+	 *
+	 * @param stream the file from its first byte on
+	 * @param head the same head the format scored
+	 * @param sink receives the waypoints in file order
+	 * @throws ProcessingException when the sink refused a waypoint
+	 */
+	public void parse(InputStream stream, ByteBuffer head, WaypointSink sink) throws IOException, FileException, ParseException, FatalException, ProcessingException;
+
+	/**
+	 * @return the position of the first byte after a UTF-8 byte order mark,
+	 * or the position of the head when it does not start with one
+	 */
+	public static int skipByteOrderMark(ByteBuffer head) {
+		int position = head.position();
+		if (head.limit() - position >= 3 && MappedLineReader.isByteOrderMark(head, position)) {
+			return position + 3;
+		}
+		return position;
+	}
+
+	/**
+	 * @return whether the bytes from the offset match the ASCII prefix
+	 */
+	public static boolean startsWith(ByteBuffer head, int offset, String prefix) {
+		if (offset < 0 || head.limit() - offset < prefix.length()) {
+			return false;
+		}
+		for (int i = 0; i < prefix.length(); i++) {
+			if ((head.get(offset + i) & 0xFF) != prefix.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the offset of the first line after the offset, or -1 when the
+	 * head ends before it
+	 */
+	public static int nextLine(ByteBuffer head, int offset) {
+		for (int i = offset; i < head.limit(); i++) {
+			if (head.get(i) == '\n') {
+				return i + 1;
+			}
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,270 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2013 Pieter Van Eeckhout.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.honeyedoak.waypointcoverter.controller.waypoint;
+
+import com.honeyedoak.waypointcoverter.exceptions.WaypointAlreadyExistsException;
+import com.honeyedoak.waypointcoverter.exceptions.WaypointDoesNotExistException;
+import com.honeyedoak.waypointcoverter.model.Waypoint;
+import com.honeyedoak.waypointcoverter.model.WaypointUI;
+import com.honeyedoak.waypointcoverter.util.BaseObserver;
+import com.honeyedoak.waypointcoverter.util.ChangeEvent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.apache.log4j.Logger;
+
+/**
+ * ConcurrentWaypointRepository.java (UTF-8)
+ *
+ * <p>WaypointRepository that many threads can add waypoints to at the same
+ * time, so several files can be loaded in one session in parallel. The
+ * waypoints are kept in a ConcurrentHashMap, a name is claimed with
+ * putIfAbsent so duplicates are found without a lock.</p>
+ *
+ * <p>Added waypoints are not announced one by one. Their names are queued
+ * and handed to the observers as one ADDED event when the batch size is
+ * reached, when {@link #flush()} is called or before any other change is
+ * announced. Observers are called by one thread at a time, in the order of
+ * the changes, but not always on the thread that made the change.</p>
+ *
+ * 2026/10/17
+ *
+ * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
+ * @since 2.0.0
+ * @version 2.0.0
+ */
+public class ConcurrentWaypointRepository extends WaypointRepository {
+
+    private static final int DEFAULT_BATCH_SIZE = 1024;
+    private final WaypointStore waypoints;
+    private final int batchSize;
+    private final ConcurrentLinkedQueue<String> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    //adds share the read lock, announcing and the other changes take the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Logger logger;
+
+    public ConcurrentWaypointRepository() {
+        this(DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param batchSize the number of added waypoints announced together
+     */
+    public ConcurrentWaypointRepository(int batchSize) {
+        this(new HashWaypointStore(new ConcurrentHashMap<>()), batchSize);
+    }
+
+    private ConcurrentWaypointRepository(WaypointStore waypoints, int batchSize) {
+        super(waypoints);
+        logger = Logger.getLogger(ConcurrentWaypointRepository.class);
+        obsevers = new CopyOnWriteArrayList<>();
+        this.waypoints = waypoints;
+        this.batchSize = Math.max(batchSize, 1);
+    }
+
+    @Override
+    public void addWaypoint(Waypoint waypoint) throws WaypointAlreadyExistsException {
+        lock.readLock().lock();
+        try {
+            if (!waypoints.add(waypoint)) {
+                throw new WaypointAlreadyExistsException("trying to add waypoint with duplicate name: " + waypoint.getName());
+            }
+            pending.add(waypoint.getName());
+            invalidateSpatialIndex();
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (pendingCount.incrementAndGet() >= batchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Adds all the waypoints or none of them. The names are claimed one by
+     * one, when a name is taken the waypoints added so far are removed again.
+     * Other threads may see those waypoints in the meantime, but they are
+     * never announced.
+     *
+     * @throws WaypointAlreadyExistsException when a name is taken, nothing
+     * is added then
+     */
+    @Override
+    public void addWaypoints(Collection<? extends Waypoint> waypointsToAdd) throws WaypointAlreadyExistsException {
+        List<String> keys = new ArrayList<>(waypointsToAdd.size());
+        lock.readLock().lock();
+        try {
+            for (Waypoint waypoint : waypointsToAdd) {
+                if (!waypoints.add(waypoint)) {
+                    for (String key : keys) {
+                        waypoints.remove(key);
+                    }
+                    invalidateSpatialIndex();
+                    throw new WaypointAlreadyExistsException("trying to add waypoint with duplicate name: " + waypoint.getName());
+                }
+                keys.add(waypoint.getName());
+            }
+            pending.addAll(keys);
+            invalidateSpatialIndex();
+        } finally {
+            lock.readLock().unlock();
+        }
+        logger.debug("added waypoints: " + keys.size());
+        if (pendingCount.addAndGet(keys.size()) >= batchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Resolves the taken names while no other thread changes the repository,
+     * the waypoints not announced yet are announced first.
+     */
+    @Override
+    public int addWaypoints(Collection<? extends Waypoint> waypointsToAdd, DuplicatePolicy policy) throws WaypointAlreadyExistsException {
+        lock.writeLock().lock();
+        try {
+            announcePending();
+            return super.addWaypoints(waypointsToAdd, policy);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Announces the waypoints added since the last announcement as one ADDED
+     * event.
+     */
+    public void flush() {
+        lock.writeLock().lock();
+        try {
+            announcePending();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //the write lock must be held
+    private void announcePending() {
+        List<String> keys = new ArrayList<>(Math.max(pendingCount.get(), 0));
+        String key;
+        while ((key = pending.poll()) != null) {
+            keys.add(key);
+        }
+        pendingCount.addAndGet(-keys.size());
+        if (!keys.isEmpty()) {
+            notifyObservers(new ChangeEvent<>(ChangeEvent.Type.ADDED, keys));
+        }
+    }
+
+    @Override
+    public void removeWaypoint(Waypoint waypoint) throws WaypointDoesNotExistException {
+        lock.writeLock().lock();
+        try {
+            announcePending();
+            super.removeWaypoint(waypoint);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void toggleWaypointExport(String waypointName) throws WaypointDoesNotExistException {
+        lock.writeLock().lock();
+        try {
+            announcePending();
+            super.toggleWaypointExport(waypointName);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes all waypoints, the waypoints not announced yet are dropped
+     * without an ADDED event.
+     */
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            pendingCount.addAndGet(-pending.size());
+            pending.clear();
+            super.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Waypoint> getWaypoints() {
+        lock.readLock().lock();
+        try {
+            return super.getWaypoints();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Waypoint> getWaypointsToExport() {
+        lock.readLock().lock();
+        try {
+            return super.getWaypointsToExport();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Announces the pending waypoints to the current observers first, the
+     * new observer gets a full data that holds them.
+     */
+    @Override
+    public void addObsever(BaseObserver<WaypointRepository, List<WaypointUI>, String> obsever) {
+        lock.writeLock().lock();
+        try {
+            announcePending();
+            super.addObsever(obsever);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void notifyObservers() {
+        lock.writeLock().lock();
+        try {
+            announcePending();
+            super.notifyObservers();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
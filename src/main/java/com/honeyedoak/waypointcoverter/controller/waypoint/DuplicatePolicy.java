@@ -0,0 +1,110 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2013 Pieter Van Eeckhout.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.honeyedoak.waypointcoverter.controller.waypoint;
+
+import com.honeyedoak.waypointcoverter.model.Waypoint;
+
+/**
+ * DuplicatePolicy.java (UTF-8)
+ *
+ * <p>What a WaypointRepository does with an added waypoint whose name is
+ * taken, by a stored waypoint or by an earlier waypoint of the same
+ * batch.</p>
+ *
+ * 2026/10/17
+ *
+ * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
+ * @since 2.0.0
+ * @version 2.0.0
+ */
+public final class DuplicatePolicy {
+
+    public enum Mode {
+        /**
+         * Nothing is added, the batch fails.
+         */
+        FAIL,
+        /**
+         * The first waypoint with the name is kept, the duplicate is
+         * dropped.
+         */
+        SKIP,
+        /**
+         * The duplicate takes the place of the waypoint with the name.
+         */
+        REPLACE,
+        /**
+         * The duplicate is added under the first free name of the form
+         * <code>name_2</code>, <code>name_3</code>...
+         */
+        SUFFIX,
+        /**
+         * The duplicate is dropped when it lies within the epsilon of the
+         * waypoint with the name, it is added like SUFFIX otherwise.
+         */
+        NEARBY
+    }
+
+    public static final DuplicatePolicy FAIL = new DuplicatePolicy(Mode.FAIL, 0);
+    public static final DuplicatePolicy SKIP = new DuplicatePolicy(Mode.SKIP, 0);
+    public static final DuplicatePolicy REPLACE = new DuplicatePolicy(Mode.REPLACE, 0);
+    public static final DuplicatePolicy SUFFIX = new DuplicatePolicy(Mode.SUFFIX, 0);
+
+    private final Mode mode;
+    private final double epsilon;
+
+    private DuplicatePolicy(Mode mode, double epsilon) {
+        this.mode = mode;
+        this.epsilon = epsilon;
+    }
+
+    /**
+     * @param epsilon the largest difference in degrees, of the latitude and of
+     * the longitude, of waypoints that are the same place
+     */
+    public static DuplicatePolicy nearby(double epsilon) {
+        return new DuplicatePolicy(Mode.NEARBY, Math.abs(epsilon));
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public double getEpsilon() {
+        return epsilon;
+    }
+
+    /**
+     * @return whether the waypoints lie within the epsilon of each other
+     */
+    public boolean isNearby(Waypoint first, Waypoint second) {
+        return Math.abs(first.getSignedLatitude() - second.getSignedLatitude()) <= epsilon
+                && Math.abs(first.getSignedLongitude() - second.getSignedLongitude()) <= epsilon;
+    }
+
+    @Override
+    public String toString() {
+        return mode == Mode.NEARBY ? mode + " " + epsilon : mode.toString();
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2013 Pieter Van Eeckhout.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.honeyedoak.waypointcoverter.controller.waypoint;
+
+import com.honeyedoak.waypointcoverter.model.Waypoint;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * HashWaypointStore.java (UTF-8)
+ *
+ * <p>WaypointStore keeping the Waypoint objects in a map. The waypoints it
+ * returns are the stored objects themselves. The store is as thread-safe as
+ * the map it is given.</p>
+ *
+ * 2026/10/17
+ *
+ * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
+ * @since 2.0.0
+ * @version 2.0.0
+ */
+public class HashWaypointStore implements WaypointStore {
+
+    private final Map<String, Waypoint> waypoints;
+
+    public HashWaypointStore() {
+        this(new HashMap<>());
+    }
+
+    /**
+     * @param waypoints the map the waypoints are kept in, by name
+     */
+    public HashWaypointStore(Map<String, Waypoint> waypoints) {
+        this.waypoints = waypoints;
+    }
+
+    @Override
+    public int size() {
+        return waypoints.size();
+    }
+
+    @Override
+    public boolean contains(String name) {
+        return waypoints.containsKey(name);
+    }
+
+    /**
+     * Claims the name with putIfAbsent, which is atomic when the map is a
+     * ConcurrentMap.
+     */
+    @Override
+    public boolean add(Waypoint waypoint) {
+        return waypoints.putIfAbsent(waypoint.getName(), waypoint) == null;
+    }
+
+    /**
+     * Hands the waypoints to the map in one putAll, so it resizes once.
+     */
+    @Override
+    public void addAll(Collection<? extends Waypoint> waypoints) {
+        Map<String, Waypoint> added = new HashMap<>(2 * waypoints.size());
+        for (Waypoint waypoint : waypoints) {
+            added.put(waypoint.getName(), waypoint);
+        }
+        this.waypoints.putAll(added);
+    }
+
+    @Override
+    public boolean replace(Waypoint waypoint) {
+        return waypoints.replace(waypoint.getName(), waypoint) != null;
+    }
+
+    @Override
+    public Waypoint get(String name) {
+        return waypoints.get(name);
+    }
+
+    @Override
+    public boolean remove(String name) {
+        return waypoints.remove(name) != null;
+    }
+
+    @Override
+    public boolean toggleExport(String name) {
+        Waypoint waypoint = waypoints.get(name);
+        if (waypoint == null) {
+            return false;
+        }
+        waypoint.toggleExport();
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        waypoints.clear();
+    }
+
+    @Override
+    public Iterator<Waypoint> iterator() {
+        return Collections.unmodifiableCollection(waypoints.values()).iterator();
+    }
+}
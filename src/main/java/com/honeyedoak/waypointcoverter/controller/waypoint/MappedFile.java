@@ -0,0 +1,179 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2013 Pieter Van Eeckhout.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.honeyedoak.waypointcoverter.controller.waypoint;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * MappedFile.java (UTF-8)
+ *
+ * <p>A file mapped in memory in segments of 1 GiB, so it can be larger than
+ * one MappedByteBuffer. Values are read and written at long positions, a
+ * value must not cross the border of two segments. The file grows when more
+ * capacity is asked for.</p>
+ *
+ * 2026/10/17
+ *
+ * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
+ * @since 2.0.0
+ * @version 2.0.0
+ */
+class MappedFile implements Closeable {
+
+    static final int SEGMENT_SHIFT = 30;
+    static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+    private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+    private final FileChannel channel;
+    private MappedByteBuffer[] segments = new MappedByteBuffer[0];
+    private long capacity;
+
+    /**
+     * Maps the file, creating it when it does not exist.
+     *
+     * @param minCapacity the bytes to map at least, the file is made longer
+     * when needed
+     */
+    MappedFile(Path path, long minCapacity) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ensureCapacity(Math.max(channel.size(), minCapacity));
+    }
+
+    long capacity() {
+        return capacity;
+    }
+
+    /**
+     * Maps at least the given number of bytes, growing the capacity by half
+     * at a time.
+     */
+    void ensureCapacity(long minCapacity) throws IOException {
+        if (minCapacity <= capacity) {
+            return;
+        }
+        long newCapacity = Math.max(minCapacity, capacity + (capacity >> 1));
+        int count = (int) ((newCapacity + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT);
+        //the last segment may be partial, it is mapped again
+        int first = Math.max(segments.length - 1, 0);
+        segments = Arrays.copyOf(segments, count);
+        for (int i = first; i < count; i++) {
+            long position = (long) i << SEGMENT_SHIFT;
+            segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, position, Math.min(SEGMENT_SIZE, newCapacity - position));
+        }
+        capacity = newCapacity;
+    }
+
+    /**
+     * @return the position of the next segment when the bytes would cross
+     * the border of a segment, the position otherwise
+     */
+    static long align(long position, int length) {
+        long end = position + length - 1;
+        return (position >>> SEGMENT_SHIFT) == (end >>> SEGMENT_SHIFT) ? position : (end >>> SEGMENT_SHIFT) << SEGMENT_SHIFT;
+    }
+
+    byte getByte(long position) {
+        return segment(position).get(offset(position));
+    }
+
+    void putByte(long position, byte value) {
+        segment(position).put(offset(position), value);
+    }
+
+    int getUnsignedShort(long position) {
+        return segment(position).getShort(offset(position)) & 0xFFFF;
+    }
+
+    void putShort(long position, int value) {
+        segment(position).putShort(offset(position), (short) value);
+    }
+
+    int getInt(long position) {
+        return segment(position).getInt(offset(position));
+    }
+
+    void putInt(long position, int value) {
+        segment(position).putInt(offset(position), value);
+    }
+
+    long getLong(long position) {
+        return segment(position).getLong(offset(position));
+    }
+
+    void putLong(long position, long value) {
+        segment(position).putLong(offset(position), value);
+    }
+
+    double getDouble(long position) {
+        return segment(position).getDouble(offset(position));
+    }
+
+    void putDouble(long position, double value) {
+        segment(position).putDouble(offset(position), value);
+    }
+
+    void get(long position, byte[] bytes, int length) {
+        ByteBuffer view = segment(position).duplicate();
+        view.position(offset(position));
+        view.get(bytes, 0, length);
+    }
+
+    void put(long position, byte[] bytes) {
+        ByteBuffer view = segment(position).duplicate();
+        view.position(offset(position));
+        view.put(bytes);
+    }
+
+    /**
+     * Writes the changed pages to the disk.
+     */
+    void force() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    private MappedByteBuffer segment(long position) {
+        return segments[(int) (position >>> SEGMENT_SHIFT)];
+    }
+
+    private static int offset(long position) {
+        return (int) (position & SEGMENT_MASK);
+    }
+
+    /**
+     * Closes the channel, the mappings stay valid until they are garbage
+     * collected.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
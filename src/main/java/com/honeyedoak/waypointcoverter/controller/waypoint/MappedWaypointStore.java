@@ -0,0 +1,425 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2013 Pieter Van Eeckhout.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.honeyedoak.waypointcoverter.controller.waypoint;
+
+import com.honeyedoak.waypointcoverter.exceptions.FileException;
+import com.honeyedoak.waypointcoverter.exceptions.InvalidModelStateException;
+import com.honeyedoak.waypointcoverter.model.Waypoint;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import org.apache.log4j.Logger;
+
+/**
+ * MappedWaypointStore.java (UTF-8)
+ *
+ * <p>WaypointStore kept in memory mapped files in a directory, for sets of
+ * waypoints larger than the heap. Nothing of the waypoints is on the heap,
+ * which pages are in memory is left to the operating system. Opening a store
+ * maps the files, nothing is read up front. Every change is in the files
+ * right away, {@link #force()} writes them to the disk.</p>
+ *
+ * <ul>
+ * <li><code>waypoints.dat</code>: a header and a record of 32 bytes a
+ * waypoint: latitude, longitude, offset of the name, hash of the name, byte
+ * length of the name and the north, east and export flags</li>
+ * <li><code>names.dat</code>: the UTF-8 names, a name never crosses the
+ * border of a mapped segment</li>
+ * <li><code>index.dat</code>: an open addressing table of record index + 1
+ * by the hash of the name, 0 for a free slot, at most half full</li>
+ * </ul>
+ *
+ * <p>Like the PrimitiveWaypointStore the waypoints handed out are new Waypoint
+ * objects and removing a waypoint moves the last one into its place. The
+ * bytes of removed names are only reclaimed by {@link #clear()}.</p>
+ *
+ * 2026/10/17
+ *
+ * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
+ * @since 2.0.0
+ * @version 2.0.0
+ */
+public class MappedWaypointStore implements WaypointStore, Closeable {
+
+    public static final int VERSION = 1;
+    private static final int MAGIC = 0x57504D53;
+    private static final int HEADER_SIZE = 64;
+    private static final int RECORD_SIZE = 32;
+    private static final int MAX_NAME_LENGTH = 0xFFFF;
+    private static final int DEFAULT_CAPACITY = 1024;
+    //header fields
+    private static final int MAGIC_POSITION = 0;
+    private static final int VERSION_POSITION = 4;
+    private static final int SIZE_POSITION = 8;
+    private static final int SLOTS_POSITION = 12;
+    private static final int NAMES_LENGTH_POSITION = 16;
+    //record fields
+    private static final int LATITUDE = 0;
+    private static final int LONGITUDE = 8;
+    private static final int NAME_OFFSET = 16;
+    private static final int HASH = 24;
+    private static final int NAME_LENGTH = 28;
+    private static final int FLAGS = 30;
+    private static final int NORTH = 1;
+    private static final int EAST = 2;
+    private static final int EXPORT = 4;
+    private final MappedFile records;
+    private final MappedFile names;
+    private final MappedFile index;
+    private int size;
+    private int slots;
+    private long namesLength;
+    private Logger logger;
+
+    /**
+     * Opens the store in the directory, or creates an empty one when the
+     * directory holds none.
+     *
+     * @throws FileException when the directory holds files that are not a
+     * waypoint store of a known version
+     */
+    public MappedWaypointStore(Path directory) throws IOException {
+        logger = Logger.getLogger(MappedWaypointStore.class);
+        Files.createDirectories(directory);
+        Path recordsPath = directory.resolve("waypoints.dat");
+        boolean exists = Files.exists(recordsPath) && Files.size(recordsPath) >= HEADER_SIZE;
+        records = new MappedFile(recordsPath, HEADER_SIZE + (long) DEFAULT_CAPACITY * RECORD_SIZE);
+        names = new MappedFile(directory.resolve("names.dat"), DEFAULT_CAPACITY * 8L);
+        index = new MappedFile(directory.resolve("index.dat"), 2L * DEFAULT_CAPACITY * 4);
+
+        if (exists) {
+            if (records.getInt(MAGIC_POSITION) != MAGIC) {
+                throw new FileException(directory + " does not hold a waypoint store");
+            }
+            int version = records.getInt(VERSION_POSITION);
+            if (version != VERSION) {
+                throw new FileException("unsupported waypoint store version " + version);
+            }
+            size = records.getInt(SIZE_POSITION);
+            slots = records.getInt(SLOTS_POSITION);
+            namesLength = records.getLong(NAMES_LENGTH_POSITION);
+            logger.debug("opened waypoint store " + directory + " with waypoints: " + size);
+        } else {
+            records.putInt(MAGIC_POSITION, MAGIC);
+            records.putInt(VERSION_POSITION, VERSION);
+            resetIndex(2 * DEFAULT_CAPACITY);
+            writeHeader();
+        }
+    }
+
+    private static int hash(String name) {
+        int hash = name.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    private static long record(int index) {
+        return HEADER_SIZE + (long) index * RECORD_SIZE;
+    }
+
+    private void writeHeader() {
+        records.putInt(SIZE_POSITION, size);
+        records.putInt(SLOTS_POSITION, slots);
+        records.putLong(NAMES_LENGTH_POSITION, namesLength);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(String name) {
+        return slot(find(name, hash(name))) != 0;
+    }
+
+    @Override
+    public boolean add(Waypoint waypoint) {
+        String name = waypoint.getName();
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        if (nameBytes.length > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("name of waypoint longer than " + MAX_NAME_LENGTH + " bytes: " + name);
+        }
+        int hash = hash(name);
+        long slot = find(name, hash);
+        if (slot(slot) != 0) {
+            return false;
+        }
+
+        try {
+            records.ensureCapacity(record(size + 1));
+            if (2L * (size + 1) > slots) {
+                growIndex();
+                slot = find(name, hash);
+            }
+            long nameOffset = MappedFile.align(namesLength, nameBytes.length);
+            names.ensureCapacity(nameOffset + nameBytes.length);
+            names.put(nameOffset, nameBytes);
+            namesLength = nameOffset + nameBytes.length;
+
+            long record = record(size);
+            records.putDouble(record + LATITUDE, waypoint.getLatitude());
+            records.putDouble(record + LONGITUDE, waypoint.getLongitude());
+            records.putLong(record + NAME_OFFSET, nameOffset);
+            records.putInt(record + HASH, hash);
+            records.putShort(record + NAME_LENGTH, nameBytes.length);
+            records.putByte(record + FLAGS, flags(waypoint));
+            index.putInt(slot, ++size);
+            writeHeader();
+            return true;
+        } catch (IOException e) {
+            logger.error(e.getMessage());
+            throw new IllegalStateException("could not grow the waypoint store: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Waypoint get(String name) {
+        int entry = slot(find(name, hash(name)));
+        return entry == 0 ? null : waypoint(entry - 1);
+    }
+
+    @Override
+    public boolean replace(Waypoint waypoint) {
+        int entry = slot(find(waypoint.getName(), hash(waypoint.getName())));
+        if (entry == 0) {
+            return false;
+        }
+        long record = record(entry - 1);
+        records.putDouble(record + LATITUDE, waypoint.getLatitude());
+        records.putDouble(record + LONGITUDE, waypoint.getLongitude());
+        records.putByte(record + FLAGS, flags(waypoint));
+        return true;
+    }
+
+    @Override
+    public boolean remove(String name) {
+        long slot = find(name, hash(name));
+        int entry = slot(slot);
+        if (entry == 0) {
+            return false;
+        }
+        freeSlot(slot);
+        int last = --size;
+        if (entry - 1 != last) {
+            move(last, entry - 1);
+        }
+        writeHeader();
+        return true;
+    }
+
+    @Override
+    public boolean toggleExport(String name) {
+        int entry = slot(find(name, hash(name)));
+        if (entry == 0) {
+            return false;
+        }
+        long flags = record(entry - 1) + FLAGS;
+        records.putByte(flags, (byte) (records.getByte(flags) ^ EXPORT));
+        return true;
+    }
+
+    /**
+     * Removes all waypoints, the files keep their size.
+     */
+    @Override
+    public void clear() {
+        size = 0;
+        namesLength = 0;
+        resetIndex(slots);
+        writeHeader();
+    }
+
+    @Override
+    public Iterator<Waypoint> iterator() {
+        return new Iterator<Waypoint>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public Waypoint next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return waypoint(next++);
+            }
+        };
+    }
+
+    /**
+     * Writes the changes to the disk.
+     */
+    public void force() {
+        records.force();
+        names.force();
+        index.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        try {
+            records.close();
+            names.close();
+        } finally {
+            index.close();
+        }
+    }
+
+    private static byte flags(Waypoint waypoint) {
+        return (byte) ((waypoint.isNorth() ? NORTH : 0) | (waypoint.isEast() ? EAST : 0) | (waypoint.isExport() ? EXPORT : 0));
+    }
+
+    private Waypoint waypoint(int entry) {
+        long record = record(entry);
+        int flags = records.getByte(record + FLAGS);
+        try {
+            Waypoint waypoint = new Waypoint(name(entry), records.getDouble(record + LONGITUDE), (flags & EAST) != 0,
+                    records.getDouble(record + LATITUDE), (flags & NORTH) != 0);
+            waypoint.setExport((flags & EXPORT) != 0);
+            return waypoint;
+        } catch (InvalidModelStateException e) {
+            //the values were taken from a valid waypoint
+            logger.error(e.getMessage());
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    private String name(int entry) {
+        long record = record(entry);
+        byte[] bytes = new byte[records.getUnsignedShort(record + NAME_LENGTH)];
+        names.get(records.getLong(record + NAME_OFFSET), bytes, bytes.length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private boolean nameEquals(int entry, byte[] name) {
+        long record = record(entry);
+        if (records.getUnsignedShort(record + NAME_LENGTH) != name.length) {
+            return false;
+        }
+        long offset = records.getLong(record + NAME_OFFSET);
+        for (int i = 0; i < name.length; i++) {
+            if (names.getByte(offset + i) != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int slot(long slot) {
+        return index.getInt(slot);
+    }
+
+    /**
+     * @return the position in the index of the slot holding the waypoint with
+     * the name, or of the free slot where it belongs
+     */
+    private long find(String name, int hash) {
+        byte[] nameBytes = null;
+        long mask = slots - 1;
+        long slot = hash & mask;
+        int entry;
+        while ((entry = index.getInt(4 * slot)) != 0) {
+            if (records.getInt(record(entry - 1) + HASH) == hash) {
+                if (nameBytes == null) {
+                    nameBytes = name.getBytes(StandardCharsets.UTF_8);
+                }
+                if (nameEquals(entry - 1, nameBytes)) {
+                    return 4 * slot;
+                }
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 4 * slot;
+    }
+
+    /**
+     * Frees a slot, moving back the entries after it that could not take
+     * their own slot, so no lookup runs into a gap.
+     */
+    private void freeSlot(long position) {
+        long mask = slots - 1;
+        long free = position / 4;
+        long next = (free + 1) & mask;
+        int entry;
+        while ((entry = index.getInt(4 * next)) != 0) {
+            long home = records.getInt(record(entry - 1) + HASH) & mask;
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                index.putInt(4 * free, entry);
+                free = next;
+            }
+            next = (next + 1) & mask;
+        }
+        index.putInt(4 * free, 0);
+    }
+
+    private void move(int from, int to) {
+        long mask = slots - 1;
+        long slot = records.getInt(record(from) + HASH) & mask;
+        while (index.getInt(4 * slot) != from + 1) {
+            slot = (slot + 1) & mask;
+        }
+        index.putInt(4 * slot, to + 1);
+
+        long source = record(from);
+        long target = record(to);
+        for (int i = 0; i < RECORD_SIZE; i += 8) {
+            records.putLong(target + i, records.getLong(source + i));
+        }
+    }
+
+    private void growIndex() {
+        resetIndex(2 * slots);
+        long mask = slots - 1;
+        for (int entry = 0; entry < size; entry++) {
+            long slot = records.getInt(record(entry) + HASH) & mask;
+            while (index.getInt(4 * slot) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            index.putInt(4 * slot, entry + 1);
+        }
+        logger.debug("grew waypoint store index to slots: " + slots);
+    }
+
+    private void resetIndex(int newSlots) {
+        try {
+            index.ensureCapacity(4L * newSlots);
+        } catch (IOException e) {
+            logger.error(e.getMessage());
+            throw new IllegalStateException("could not grow the waypoint store index: " + e.getMessage(), e);
+        }
+        slots = newSlots;
+        for (long position = 0; position < 4L * slots; position += 8) {
+            index.putLong(position, 0);
+        }
+    }
+}
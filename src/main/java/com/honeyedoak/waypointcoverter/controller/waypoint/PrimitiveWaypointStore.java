@@ -0,0 +1,415 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2013 Pieter Van Eeckhout.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.honeyedoak.waypointcoverter.controller.waypoint;
+
+import com.honeyedoak.waypointcoverter.exceptions.InvalidModelStateException;
+import com.honeyedoak.waypointcoverter.model.Waypoint;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import org.apache.log4j.Logger;
+
+/**
+ * PrimitiveWaypointStore.java (UTF-8)
+ *
+ * <p>WaypointStore for very large numbers of waypoints. Nothing is kept per
+ * waypoint but primitives in shared arrays: the coordinates in double arrays,
+ * the hemispheres and export state in bit sets and the names in one byte
+ * array. A name of characters up to U+00FF takes a byte a character, any
+ * other name two. The names are found through an open addressing table of
+ * entry indexes.</p>
+ *
+ * <p>The waypoints handed out are new Waypoint objects built from the stored
+ * values, they are not the objects that were added. Removing a waypoint moves
+ * the last waypoint into its place, so the iteration order changes.</p>
+ *
+ * 2026/10/17
+ *
+ * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
+ * @since 2.0.0
+ * @version 2.0.0
+ */
+public class PrimitiveWaypointStore implements WaypointStore {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    //expected bytes a name, to size the name array
+    private static final int NAME_SIZE = 8;
+    private int size;
+    private double[] longitudes;
+    private double[] latitudes;
+    private final BitSet east = new BitSet();
+    private final BitSet north = new BitSet();
+    private final BitSet export = new BitSet();
+    //names taking two bytes a character
+    private final BitSet wideNames = new BitSet();
+    private int[] hashes;
+    private int[] nameOffsets;
+    private int[] nameLengths;
+    private byte[] names;
+    private int namesLength;
+    //bytes of names of removed waypoints, reclaimed by compactNames
+    private int namesGarbage;
+    //index + 1 of the waypoints by the hash of their name, 0 for a free slot
+    private int[] slots;
+    private Logger logger;
+
+    public PrimitiveWaypointStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize the number of waypoints to make room for
+     */
+    public PrimitiveWaypointStore(int expectedSize) {
+        logger = Logger.getLogger(PrimitiveWaypointStore.class);
+        allocate(Math.max(expectedSize, DEFAULT_CAPACITY));
+    }
+
+    private void allocate(int capacity) {
+        longitudes = new double[capacity];
+        latitudes = new double[capacity];
+        hashes = new int[capacity];
+        nameOffsets = new int[capacity];
+        nameLengths = new int[capacity];
+        names = new byte[capacity * NAME_SIZE];
+        slots = new int[tableSize(capacity)];
+    }
+
+    //a power of two of at least twice the capacity, keeping the table at most half full
+    private static int tableSize(int capacity) {
+        return Integer.highestOneBit(2 * capacity - 1) << 1;
+    }
+
+    private static int hash(String name) {
+        int hash = name.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(String name) {
+        return slots[find(name, hash(name))] != 0;
+    }
+
+    @Override
+    public boolean add(Waypoint waypoint) {
+        String name = waypoint.getName();
+        int hash = hash(name);
+        int slot = find(name, hash);
+        if (slots[slot] != 0) {
+            return false;
+        }
+        if (size == longitudes.length) {
+            grow(size + 1);
+            slot = find(name, hash);
+        }
+
+        int index = size++;
+        longitudes[index] = waypoint.getLongitude();
+        latitudes[index] = waypoint.getLatitude();
+        east.set(index, waypoint.isEast());
+        north.set(index, waypoint.isNorth());
+        export.set(index, waypoint.isExport());
+        hashes[index] = hash;
+        putName(index, name);
+        slots[slot] = index + 1;
+        return true;
+    }
+
+    @Override
+    public void addAll(Collection<? extends Waypoint> waypoints) {
+        if (size + waypoints.size() > longitudes.length) {
+            grow(size + waypoints.size());
+        }
+        for (Waypoint waypoint : waypoints) {
+            add(waypoint);
+        }
+    }
+
+    /**
+     * Overwrites the values in place, the waypoint keeps its position.
+     */
+    @Override
+    public boolean replace(Waypoint waypoint) {
+        int slot = find(waypoint.getName(), hash(waypoint.getName()));
+        if (slots[slot] == 0) {
+            return false;
+        }
+        int index = slots[slot] - 1;
+        longitudes[index] = waypoint.getLongitude();
+        latitudes[index] = waypoint.getLatitude();
+        east.set(index, waypoint.isEast());
+        north.set(index, waypoint.isNorth());
+        export.set(index, waypoint.isExport());
+        return true;
+    }
+
+    @Override
+    public Waypoint get(String name) {
+        int slot = find(name, hash(name));
+        return slots[slot] == 0 ? null : waypoint(slots[slot] - 1);
+    }
+
+    @Override
+    public boolean remove(String name) {
+        int slot = find(name, hash(name));
+        if (slots[slot] == 0) {
+            return false;
+        }
+        int index = slots[slot] - 1;
+        freeSlot(slot);
+        namesGarbage += nameBytes(index);
+
+        int last = --size;
+        if (index != last) {
+            move(last, index);
+        }
+        east.clear(last);
+        north.clear(last);
+        export.clear(last);
+        wideNames.clear(last);
+
+        if (namesGarbage > namesLength / 2) {
+            compactNames();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean toggleExport(String name) {
+        int slot = find(name, hash(name));
+        if (slots[slot] == 0) {
+            return false;
+        }
+        export.flip(slots[slot] - 1);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        namesLength = 0;
+        namesGarbage = 0;
+        east.clear();
+        north.clear();
+        export.clear();
+        wideNames.clear();
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    @Override
+    public Iterator<Waypoint> iterator() {
+        return new Iterator<Waypoint>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public Waypoint next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return waypoint(next++);
+            }
+        };
+    }
+
+    private Waypoint waypoint(int index) {
+        try {
+            Waypoint waypoint = new Waypoint(name(index), longitudes[index], east.get(index), latitudes[index], north.get(index));
+            waypoint.setExport(export.get(index));
+            return waypoint;
+        } catch (InvalidModelStateException e) {
+            //the values were taken from a valid waypoint
+            logger.error(e.getMessage());
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return the slot holding the waypoint with the name, or the free slot
+     * where it belongs
+     */
+    private int find(String name, int hash) {
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] != 0) {
+            int index = slots[slot] - 1;
+            if (hashes[index] == hash && nameEquals(index, name)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Frees a slot, moving back the waypoints after it that could not take
+     * their own slot, so no lookup runs into a gap.
+     */
+    private void freeSlot(int slot) {
+        int mask = slots.length - 1;
+        int free = slot;
+        int next = (slot + 1) & mask;
+        while (slots[next] != 0) {
+            int home = hashes[slots[next] - 1] & mask;
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                slots[free] = slots[next];
+                free = next;
+            }
+            next = (next + 1) & mask;
+        }
+        slots[free] = 0;
+    }
+
+    private void move(int from, int to) {
+        int mask = slots.length - 1;
+        int slot = hashes[from] & mask;
+        while (slots[slot] != from + 1) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = to + 1;
+
+        longitudes[to] = longitudes[from];
+        latitudes[to] = latitudes[from];
+        east.set(to, east.get(from));
+        north.set(to, north.get(from));
+        export.set(to, export.get(from));
+        wideNames.set(to, wideNames.get(from));
+        hashes[to] = hashes[from];
+        nameOffsets[to] = nameOffsets[from];
+        nameLengths[to] = nameLengths[from];
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = Math.max(minCapacity, longitudes.length + (longitudes.length >> 1));
+        longitudes = Arrays.copyOf(longitudes, capacity);
+        latitudes = Arrays.copyOf(latitudes, capacity);
+        hashes = Arrays.copyOf(hashes, capacity);
+        nameOffsets = Arrays.copyOf(nameOffsets, capacity);
+        nameLengths = Arrays.copyOf(nameLengths, capacity);
+
+        int tableSize = tableSize(capacity);
+        if (tableSize > slots.length) {
+            slots = new int[tableSize];
+            int mask = tableSize - 1;
+            for (int index = 0; index < size; index++) {
+                int slot = hashes[index] & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = index + 1;
+            }
+        }
+    }
+
+    private void putName(int index, String name) {
+        int length = name.length();
+        boolean wide = false;
+        for (int i = 0; i < length && !wide; i++) {
+            wide = name.charAt(i) > 0xFF;
+        }
+        int bytes = wide ? 2 * length : length;
+        if (namesLength + bytes > names.length) {
+            names = Arrays.copyOf(names, Math.max(namesLength + bytes, names.length + (names.length >> 1)));
+        }
+
+        int offset = namesLength;
+        for (int i = 0; i < length; i++) {
+            char c = name.charAt(i);
+            if (wide) {
+                names[offset + 2 * i] = (byte) (c >>> 8);
+                names[offset + 2 * i + 1] = (byte) c;
+            } else {
+                names[offset + i] = (byte) c;
+            }
+        }
+        namesLength += bytes;
+        nameOffsets[index] = offset;
+        nameLengths[index] = length;
+        wideNames.set(index, wide);
+    }
+
+    private int nameBytes(int index) {
+        return wideNames.get(index) ? 2 * nameLengths[index] : nameLengths[index];
+    }
+
+    private char nameChar(int index, int i, boolean wide) {
+        int offset = nameOffsets[index];
+        if (wide) {
+            return (char) ((names[offset + 2 * i] & 0xFF) << 8 | (names[offset + 2 * i + 1] & 0xFF));
+        }
+        return (char) (names[offset + i] & 0xFF);
+    }
+
+    private boolean nameEquals(int index, String name) {
+        int length = nameLengths[index];
+        if (length != name.length()) {
+            return false;
+        }
+        boolean wide = wideNames.get(index);
+        for (int i = 0; i < length; i++) {
+            if (nameChar(index, i, wide) != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String name(int index) {
+        if (!wideNames.get(index)) {
+            return new String(names, nameOffsets[index], nameLengths[index], StandardCharsets.ISO_8859_1);
+        }
+        char[] chars = new char[nameLengths[index]];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = nameChar(index, i, true);
+        }
+        return new String(chars);
+    }
+
+    private void compactNames() {
+        byte[] compacted = new byte[Math.max(namesLength - namesGarbage, DEFAULT_CAPACITY * NAME_SIZE)];
+        int offset = 0;
+        for (int index = 0; index < size; index++) {
+            int bytes = nameBytes(index);
+            System.arraycopy(names, nameOffsets[index], compacted, offset, bytes);
+            nameOffsets[index] = offset;
+            offset += bytes;
+        }
+        names = compacted;
+        namesLength = offset;
+        namesGarbage = 0;
+    }
+}
@@ -71,9 +71,19 @@ public class WaypointController {
         waypointRepository.addWaypoint(waypoint);
     }
     
+    /**
+     * Adds all the waypoints or, when a name is taken, none of them.
+     */
     public void addWaypoints(Collection<Waypoint> waypoints) throws WaypointAlreadyExistsException {
-        for (Waypoint waypoint : waypoints) {
-            this.addWayPoint(waypoint);
-        }
+        waypointRepository.addWaypoints(waypoints);
+    }
+
+    /**
+     * Adds the waypoints, handling taken names as the policy says.
+     *
+     * @return the number of waypoints whose name was taken
+     */
+    public int addWaypoints(Collection<Waypoint> waypoints, DuplicatePolicy policy) throws WaypointAlreadyExistsException {
+        return waypointRepository.addWaypoints(waypoints, policy);
     }
 }
@@ -0,0 +1,206 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2013 Pieter Van Eeckhout.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.honeyedoak.waypointcoverter.controller.waypoint;
+
+import com.honeyedoak.waypointcoverter.model.Waypoint;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.log4j.Logger;
+
+/**
+ * WaypointGrid.java (UTF-8)
+ *
+ * <p>Spatial index of waypoints on a uniform grid of latitude and longitude
+ * cells. A cell is as many degrees wide as its size in metres is along a
+ * meridian, so a search only looks at the few cells around a point instead
+ * of at every waypoint. Only the cells holding waypoints take memory.</p>
+ *
+ * <p>Distances are great circle distances in metres on a spherical earth,
+ * coordinates are signed degrees, negative in the south and west.</p>
+ *
+ * 2026/10/17
+ *
+ * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
+ * @since 2.0.0
+ * @version 2.0.0
+ */
+public class WaypointGrid {
+
+    //mean radius of the earth in metres
+    public static final double EARTH_RADIUS = 6371008.8;
+    private static final double METRES_PER_DEGREE = Math.PI * EARTH_RADIUS / 180;
+    //smaller cells would not fit the cell keys in a long
+    private static final double MIN_CELL_SIZE = 1;
+    private final double cellDegrees;
+    private final int rows;
+    private final int columns;
+    private final Map<Long, List<Waypoint>> cells = new HashMap<>();
+    private int size;
+
+    /**
+     * @param cellSize the size of a cell in metres, best the distance that is
+     * searched for most, at least one metre
+     */
+    public WaypointGrid(double cellSize) {
+        cellDegrees = Math.max(cellSize, MIN_CELL_SIZE) / METRES_PER_DEGREE;
+        rows = (int) Math.ceil(180 / cellDegrees) + 1;
+        columns = (int) Math.ceil(360 / cellDegrees);
+    }
+
+    /**
+     * Keeps the waypoints that do not lie within the distance of a waypoint
+     * kept before them, in one pass over a grid of the distance.
+     *
+     * @param distance in metres
+     * @return the kept waypoints, in their order
+     */
+    public static List<Waypoint> deduplicate(Iterable<? extends Waypoint> waypoints, double distance) {
+        WaypointGrid grid = new WaypointGrid(distance);
+        List<Waypoint> kept = new ArrayList<>();
+        int duplicates = 0;
+        for (Waypoint waypoint : waypoints) {
+            if (grid.findWithin(waypoint.getSignedLatitude(), waypoint.getSignedLongitude(), distance) == null) {
+                grid.add(waypoint);
+                kept.add(waypoint);
+            } else {
+                duplicates++;
+            }
+        }
+        Logger.getLogger(WaypointGrid.class).debug("waypoints within " + distance + " m of another: " + duplicates);
+        return kept;
+    }
+
+    /**
+     * @return the great circle distance between the points in metres
+     */
+    public static double distance(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double latitudeSine = Math.sin(Math.toRadians(latitude2 - latitude1) / 2);
+        double longitudeSine = Math.sin(Math.toRadians(longitude2 - longitude1) / 2);
+        double a = latitudeSine * latitudeSine
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2)) * longitudeSine * longitudeSine;
+        return 2 * EARTH_RADIUS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void add(Waypoint waypoint) {
+        long key = key(row(waypoint.getSignedLatitude()), column(waypoint.getSignedLongitude()));
+        List<Waypoint> cell = cells.get(key);
+        if (cell == null) {
+            cell = new ArrayList<>(2);
+            cells.put(key, cell);
+        }
+        cell.add(waypoint);
+        size++;
+    }
+
+    /**
+     * @param distance in metres
+     * @return all the waypoints within the distance of the point
+     */
+    public List<Waypoint> within(double latitude, double longitude, double distance) {
+        List<Waypoint> found = new ArrayList<>();
+        search(latitude, longitude, distance, found);
+        return found;
+    }
+
+    /**
+     * @param distance in metres
+     * @return a waypoint within the distance of the point, null when there is
+     * none
+     */
+    public Waypoint findWithin(double latitude, double longitude, double distance) {
+        return search(latitude, longitude, distance, null);
+    }
+
+    /**
+     * Adds the waypoints within the distance to found, or returns the first
+     * one when found is null.
+     */
+    private Waypoint search(double latitude, double longitude, double distance, List<Waypoint> found) {
+        double latitudeDegrees = distance / METRES_PER_DEGREE;
+        int firstRow = row(latitude - latitudeDegrees);
+        int lastRow = row(latitude + latitudeDegrees);
+        //a degree of longitude is shortest on the parallel closest to the pole
+        double cosine = Math.cos(Math.toRadians(Math.min(90, Math.abs(latitude) + latitudeDegrees)));
+        double longitudeDegrees = latitudeDegrees / Math.max(cosine, 1e-12);
+        long span = (long) Math.ceil(longitudeDegrees / cellDegrees);
+
+        if (longitudeDegrees >= 180 || 2 * span + 1 >= columns
+                || (lastRow - firstRow + 1) * (2 * span + 1) > cells.size()) {
+            //looking at every filled cell is cheaper
+            for (List<Waypoint> cell : cells.values()) {
+                Waypoint waypoint = searchCell(cell, latitude, longitude, distance, found);
+                if (waypoint != null) {
+                    return waypoint;
+                }
+            }
+            return null;
+        }
+
+        int column = column(longitude);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (long offset = -span; offset <= span; offset++) {
+                List<Waypoint> cell = cells.get(key(row, (int) Math.floorMod(column + offset, (long) columns)));
+                if (cell != null) {
+                    Waypoint waypoint = searchCell(cell, latitude, longitude, distance, found);
+                    if (waypoint != null) {
+                        return waypoint;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private Waypoint searchCell(List<Waypoint> cell, double latitude, double longitude, double distance, List<Waypoint> found) {
+        for (Waypoint waypoint : cell) {
+            if (distance(latitude, longitude, waypoint.getSignedLatitude(), waypoint.getSignedLongitude()) <= distance) {
+                if (found == null) {
+                    return waypoint;
+                }
+                found.add(waypoint);
+            }
+        }
+        return null;
+    }
+
+    private int row(double latitude) {
+        int row = (int) Math.floor((latitude + 90) / cellDegrees);
+        return Math.max(0, Math.min(rows - 1, row));
+    }
+
+    private int column(double longitude) {
+        return (int) Math.floorMod((long) Math.floor((longitude + 180) / cellDegrees), (long) columns);
+    }
+
+    private long key(int row, int column) {
+        return (long) row * columns + column;
+    }
+}
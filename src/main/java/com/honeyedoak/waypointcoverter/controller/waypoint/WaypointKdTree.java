@@ -0,0 +1,247 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2013 Pieter Van Eeckhout.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.honeyedoak.waypointcoverter.controller.waypoint;
+
+import com.honeyedoak.waypointcoverter.model.Waypoint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * WaypointKdTree.java (UTF-8)
+ *
+ * <p>Immutable two dimensional k-d tree of waypoints for bounding box, radius
+ * and nearest neighbour queries. The tree takes no node objects: the
+ * coordinates are kept in two arrays, ordered so the median of every range is
+ * the split of that range, alternately on latitude and longitude.</p>
+ *
+ * <p>Coordinates are signed degrees, negative in the south and west, distances
+ * are great circle distances in metres as measured by
+ * {@link WaypointGrid#distance(double, double, double, double)}.</p>
+ *
+ * 2026/10/17
+ *
+ * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
+ * @since 2.0.0
+ * @version 2.0.0
+ */
+public class WaypointKdTree {
+
+    //no two points on the earth are further apart
+    private static final double HALF_CIRCUMFERENCE = Math.PI * WaypointGrid.EARTH_RADIUS;
+    private final int size;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final Waypoint[] waypoints;
+
+    /**
+     * Builds the tree in O(n log n), the waypoints are not copied.
+     */
+    public WaypointKdTree(Iterable<Waypoint> source) {
+        List<Waypoint> list = new ArrayList<>();
+        for (Waypoint waypoint : source) {
+            list.add(waypoint);
+        }
+        size = list.size();
+        latitudes = new double[size];
+        longitudes = new double[size];
+        waypoints = list.toArray(new Waypoint[size]);
+        for (int i = 0; i < size; i++) {
+            latitudes[i] = waypoints[i].getSignedLatitude();
+            longitudes[i] = waypoints[i].getSignedLongitude();
+        }
+        build(0, size, 0);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param west the western edge, a box over the 180th meridian has a west
+     * greater than its east
+     * @return the waypoints in the box, edges included
+     */
+    public List<Waypoint> inBox(double south, double west, double north, double east) {
+        List<Waypoint> found = new ArrayList<>();
+        if (west <= east) {
+            search(0, size, 0, south, west, north, east, 0, 0, -1, found);
+        } else {
+            search(0, size, 0, south, west, north, 180, 0, 0, -1, found);
+            search(0, size, 0, south, -180, north, east, 0, 0, -1, found);
+        }
+        return found;
+    }
+
+    /**
+     * Searches the bounding box of the circle, split in two over the 180th
+     * meridian and widened to all longitudes when it holds a pole.
+     *
+     * @param distance in metres
+     * @return the waypoints within the distance of the point
+     */
+    public List<Waypoint> within(double latitude, double longitude, double distance) {
+        List<Waypoint> found = new ArrayList<>();
+        if (distance < 0) {
+            return found;
+        }
+        double angle = distance / WaypointGrid.EARTH_RADIUS;
+        double latitudeDegrees = Math.toDegrees(angle);
+        double south = latitude - latitudeDegrees;
+        double north = latitude + latitudeDegrees;
+        if (south <= -90 || north >= 90) {
+            search(0, size, 0, Math.max(south, -90), -180, Math.min(north, 90), 180, latitude, longitude, distance, found);
+            return found;
+        }
+
+        double longitudeDegrees = Math.toDegrees(Math.asin(Math.sin(angle) / Math.cos(Math.toRadians(latitude))));
+        double west = longitude - longitudeDegrees;
+        double east = longitude + longitudeDegrees;
+        if (west < -180) {
+            search(0, size, 0, south, west + 360, north, 180, latitude, longitude, distance, found);
+            west = -180;
+        }
+        if (east > 180) {
+            search(0, size, 0, south, -180, north, east - 360, latitude, longitude, distance, found);
+            east = 180;
+        }
+        search(0, size, 0, south, west, north, east, latitude, longitude, distance, found);
+        return found;
+    }
+
+    /**
+     * Searches circles of a growing radius until k waypoints are in one,
+     * starting from the radius that would hold k evenly spread waypoints.
+     *
+     * @return the k waypoints closest to the point, closest first
+     */
+    public List<Waypoint> nearest(final double latitude, final double longitude, int k) {
+        if (k <= 0 || size == 0) {
+            return new ArrayList<>();
+        }
+        k = Math.min(k, size);
+        double distance = Math.max(1, 2 * WaypointGrid.EARTH_RADIUS * Math.sqrt((double) k / size));
+        List<Waypoint> found = within(latitude, longitude, distance);
+        while (found.size() < k && distance < HALF_CIRCUMFERENCE) {
+            distance = Math.min(2 * distance, HALF_CIRCUMFERENCE);
+            found = within(latitude, longitude, distance);
+        }
+
+        final double[] distances = new double[found.size()];
+        Integer[] order = new Integer[found.size()];
+        for (int i = 0; i < order.length; i++) {
+            Waypoint waypoint = found.get(i);
+            distances[i] = WaypointGrid.distance(latitude, longitude, waypoint.getSignedLatitude(), waypoint.getSignedLongitude());
+            order[i] = i;
+        }
+        Arrays.sort(order, (first, second) -> Double.compare(distances[first], distances[second]));
+        List<Waypoint> nearest = new ArrayList<>(k);
+        for (int i = 0; i < k; i++) {
+            nearest.add(found.get(order[i]));
+        }
+        return nearest;
+    }
+
+    /**
+     * Adds the waypoints of the range in the box to found, only those within
+     * the distance of the centre when the distance is not negative.
+     */
+    private void search(int from, int to, int depth, double south, double west, double north, double east,
+            double latitude, double longitude, double distance, List<Waypoint> found) {
+        if (from >= to) {
+            return;
+        }
+        int median = (from + to) >>> 1;
+        double medianLatitude = latitudes[median];
+        double medianLongitude = longitudes[median];
+        if (medianLatitude >= south && medianLatitude <= north && medianLongitude >= west && medianLongitude <= east
+                && (distance < 0 || WaypointGrid.distance(latitude, longitude, medianLatitude, medianLongitude) <= distance)) {
+            found.add(waypoints[median]);
+        }
+
+        boolean onLatitude = (depth & 1) == 0;
+        double split = onLatitude ? medianLatitude : medianLongitude;
+        if ((onLatitude ? south : west) <= split) {
+            search(from, median, depth + 1, south, west, north, east, latitude, longitude, distance, found);
+        }
+        if ((onLatitude ? north : east) >= split) {
+            search(median + 1, to, depth + 1, south, west, north, east, latitude, longitude, distance, found);
+        }
+    }
+
+    private void build(int from, int to, int depth) {
+        if (to - from <= 1) {
+            return;
+        }
+        int median = (from + to) >>> 1;
+        select(from, to - 1, median, depth & 1);
+        build(from, median, depth + 1);
+        build(median + 1, to, depth + 1);
+    }
+
+    /**
+     * Orders the range so the k-th place holds the value it would hold when
+     * sorted on the axis, smaller or equal values before it and greater or
+     * equal values after it.
+     */
+    private void select(int left, int right, int k, int axis) {
+        double[] values = axis == 0 ? latitudes : longitudes;
+        while (left < right) {
+            double pivot = values[(left + right) >>> 1];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (values[i] < pivot) {
+                    i++;
+                }
+                while (values[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void swap(int i, int j) {
+        double latitude = latitudes[i];
+        latitudes[i] = latitudes[j];
+        latitudes[j] = latitude;
+        double longitude = longitudes[i];
+        longitudes[i] = longitudes[j];
+        longitudes[j] = longitude;
+        Waypoint waypoint = waypoints[i];
+        waypoints[i] = waypoints[j];
+        waypoints[j] = waypoint;
+    }
+}
@@ -29,45 +29,77 @@ import com.honeyedoak.waypointcoverter.model.Waypoint;
 import com.honeyedoak.waypointcoverter.exceptions.WaypointAlreadyExistsException;
 import com.honeyedoak.waypointcoverter.model.WaypointUI;
 import com.honeyedoak.waypointcoverter.util.BaseObservable;
-import com.honeyedoak.waypointcoverter.util.BaseObserver;
+import com.honeyedoak.waypointcoverter.util.ChangeEvent;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.log4j.Logger;
 
 /**
  * WaypointRepository.java (UTF-8)
  *
- * <p>Repository for storing GPS coordinate Objects.</p>
+ * <p>Repository for storing GPS coordinate Objects. The waypoints are kept in
+ * a WaypointStore, a {@link HashWaypointStore} unless another one is
+ * given.</p>
+ *
+ * <p>Every change is announced to the observers as a ChangeEvent keyed by
+ * waypoint name.</p>
+ *
+ * <p>Bounding box, radius and nearest neighbour queries are answered from a
+ * {@link WaypointKdTree} of the waypoints, built on the first query after a
+ * change.</p>
  *
  * 2013/06/08
  *
  * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
  * @since 1.0.0
- * @version 1.0.2
+ * @version 2.0.0
  */
-public class WaypointRepository extends BaseObservable<WaypointRepository, List<WaypointUI>> {
+public class WaypointRepository extends BaseObservable<WaypointRepository, List<WaypointUI>, String> {
 
-    private Map<String, Waypoint> waypoints;
+    private WaypointStore waypoints;
+    //the number of changes, the spatial index is rebuilt when it was built before the last one
+    private final AtomicLong version = new AtomicLong();
+    private WaypointKdTree spatialIndex;
+    private long spatialIndexVersion;
     private Logger logger;
 
     public WaypointRepository() {
-        this(new HashMap<>());
+        this(new HashWaypointStore());
     }
 
     public WaypointRepository(Map<String, Waypoint> waypoints) {
+        this(new HashWaypointStore(waypoints));
+    }
+
+    public WaypointRepository(WaypointStore waypoints) {
         super();
         logger = Logger.getLogger(WaypointRepository.class);
         obsevers = new ArrayList<>();
         this.waypoints = waypoints;
     }
 
+    /**
+     * @return all the waypoints, for a snapshot of the repository
+     */
+    public List<Waypoint> getWaypoints() {
+        List<Waypoint> list = new ArrayList<>(waypoints.size());
+        for (Waypoint waypoint : waypoints) {
+            list.add(waypoint);
+        }
+        return list;
+    }
+
     public List<Waypoint> getWaypointsToExport() {
         List<Waypoint> exportList = new ArrayList<>();
-        for (Map.Entry<String, Waypoint> entry : waypoints.entrySet()) {
-            Waypoint waypoint = entry.getValue();
+        for (Waypoint waypoint : waypoints) {
             if (waypoint.isExport()) {
                 exportList.add(waypoint);
             }
@@ -76,27 +108,176 @@ public class WaypointRepository extends BaseObservable<WaypointRepository, List<
         return exportList;
     }
 
+    /**
+     * Gives the waypoints to export without near-duplicates: a waypoint within
+     * the distance of a waypoint before it is left out, whatever its name.
+     *
+     * @param mergeDistance in metres, nothing is left out when not positive
+     */
+    public List<Waypoint> getWaypointsToExport(double mergeDistance) {
+        List<Waypoint> exportList = getWaypointsToExport();
+        if (!(mergeDistance > 0)) {
+            return exportList;
+        }
+        List<Waypoint> merged = WaypointGrid.deduplicate(exportList, mergeDistance);
+        logger.debug("waypoints set for export after merging within " + mergeDistance + " m: " + merged.size());
+        return merged;
+    }
+
     public void addWaypoint(Waypoint waypoint) throws WaypointAlreadyExistsException {
-        if (!waypoints.containsKey(waypoint.getName())) {
-            waypoints.put(waypoint.getName(), waypoint);
-            notifyObservers();
+        if (waypoints.add(waypoint)) {
+            invalidateSpatialIndex();
+            notifyObservers(new ChangeEvent<>(ChangeEvent.Type.ADDED, waypoint.getName()));
         } else {
             throw new WaypointAlreadyExistsException("trying to add waypoint with duplicate name: " + waypoint.getName());
         }
     }
 
+    /**
+     * Adds all the waypoints or none of them. Duplicate names, against the
+     * repository or within the waypoints, are looked for before anything is
+     * added, the observers are notified once.
+     *
+     * @throws WaypointAlreadyExistsException when a name is taken, nothing
+     * is added then
+     */
+    public void addWaypoints(Collection<? extends Waypoint> waypointsToAdd) throws WaypointAlreadyExistsException {
+        Set<String> names = new HashSet<>(2 * waypointsToAdd.size());
+        List<String> keys = new ArrayList<>(waypointsToAdd.size());
+        for (Waypoint waypoint : waypointsToAdd) {
+            if (waypoints.contains(waypoint.getName()) || !names.add(waypoint.getName())) {
+                throw new WaypointAlreadyExistsException("trying to add waypoint with duplicate name: " + waypoint.getName());
+            }
+            keys.add(waypoint.getName());
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        waypoints.addAll(waypointsToAdd);
+        invalidateSpatialIndex();
+        logger.debug("added waypoints: " + keys.size());
+        notifyObservers(new ChangeEvent<>(ChangeEvent.Type.ADDED, keys));
+    }
+
+    /**
+     * Adds the waypoints, handling taken names as the policy says. The
+     * waypoints are resolved in one pass over the batch before the
+     * repository is changed, the observers get one ADDED event and, for
+     * replaced waypoints, one UPDATED event.
+     *
+     * @return the number of waypoints whose name was taken
+     * @throws WaypointAlreadyExistsException when a name is taken and the
+     * policy is FAIL, nothing is added then
+     */
+    public int addWaypoints(Collection<? extends Waypoint> waypointsToAdd, DuplicatePolicy policy) throws WaypointAlreadyExistsException {
+        if (policy.getMode() == DuplicatePolicy.Mode.FAIL) {
+            addWaypoints(waypointsToAdd);
+            return 0;
+        }
+
+        Map<String, Waypoint> added = new LinkedHashMap<>(2 * waypointsToAdd.size());
+        Map<String, Waypoint> replaced = new LinkedHashMap<>();
+        Map<String, Integer> suffixes = new HashMap<>();
+        int duplicates = 0;
+        for (Waypoint waypoint : waypointsToAdd) {
+            String name = waypoint.getName();
+            Waypoint first = added.get(name);
+            if (first == null) {
+                first = replaced.get(name);
+            }
+            if (first == null && waypoints.contains(name)) {
+                first = waypoints.get(name);
+            }
+            if (first == null) {
+                added.put(name, waypoint);
+                continue;
+            }
+
+            duplicates++;
+            switch (policy.getMode()) {
+                case SKIP:
+                    break;
+                case REPLACE:
+                    if (added.containsKey(name)) {
+                        added.put(name, waypoint);
+                    } else {
+                        replaced.put(name, waypoint);
+                    }
+                    break;
+                case NEARBY:
+                    if (!policy.isNearby(first, waypoint)) {
+                        //a different place with the same name, keep both
+                        addRenamed(waypoint, added, suffixes);
+                    }
+                    break;
+                case SUFFIX:
+                    addRenamed(waypoint, added, suffixes);
+                    break;
+                default:
+                    throw new IllegalStateException("unknown duplicate policy " + policy);
+            }
+        }
+
+        if (!added.isEmpty() || !replaced.isEmpty()) {
+            invalidateSpatialIndex();
+        }
+        if (!added.isEmpty()) {
+            waypoints.addAll(added.values());
+            notifyObservers(new ChangeEvent<>(ChangeEvent.Type.ADDED, new ArrayList<>(added.keySet())));
+        }
+        if (!replaced.isEmpty()) {
+            for (Waypoint waypoint : replaced.values()) {
+                waypoints.replace(waypoint);
+            }
+            notifyObservers(new ChangeEvent<>(ChangeEvent.Type.UPDATED, new ArrayList<>(replaced.keySet())));
+        }
+        logger.debug("added waypoints: " + added.size() + ", replaced: " + replaced.size() + ", duplicate names: " + duplicates + " (" + policy + ")");
+        return duplicates;
+    }
+
+    private void addRenamed(Waypoint waypoint, Map<String, Waypoint> added, Map<String, Integer> suffixes) {
+        Waypoint renamed = rename(waypoint, freeName(waypoint.getName(), added, suffixes));
+        added.put(renamed.getName(), renamed);
+    }
+
+    //the first name_n free in the repository and the batch, counting on from the last n given for the name
+    private String freeName(String name, Map<String, Waypoint> added, Map<String, Integer> suffixes) {
+        int suffix = suffixes.getOrDefault(name, 1);
+        String freeName;
+        do {
+            suffix++;
+            freeName = name + "_" + suffix;
+        } while (added.containsKey(freeName) || waypoints.contains(freeName));
+        suffixes.put(name, suffix);
+        return freeName;
+    }
+
+    private Waypoint rename(Waypoint waypoint, String name) {
+        try {
+            Waypoint renamed = new Waypoint(name, waypoint.getLongitude(), waypoint.isEast(), waypoint.getLatitude(), waypoint.isNorth());
+            renamed.setExport(waypoint.isExport());
+            return renamed;
+        } catch (InvalidModelStateException e) {
+            //the values were taken from a valid waypoint
+            logger.error(e.getMessage());
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
     public void removeWaypoint(Waypoint waypoint) throws WaypointDoesNotExistException {
-        if (waypoints.containsKey(waypoint.getName())) {
-            waypoints.remove(waypoint.getName());
-        } else {
+        if (!waypoints.remove(waypoint.getName())) {
             logger.debug("removing waypoint failed: " + waypoint.getName() + " not found in the collections");
             throw new WaypointDoesNotExistException(waypoint.getName() + " not found in the collections");
         }
+        invalidateSpatialIndex();
+        notifyObservers(new ChangeEvent<>(ChangeEvent.Type.REMOVED, waypoint.getName()));
     }
 
     public Waypoint getWaypoint(String waypointName) throws WaypointDoesNotExistException {
-        if (waypoints.containsKey(waypointName)) {
-            return waypoints.get(waypointName);
+        Waypoint waypoint = waypoints.get(waypointName);
+        if (waypoint != null) {
+            return waypoint;
         } else {
             String errorMessage = "retreiving waypoint failed: " + waypointName + " not found in the collections";
             logger.error(errorMessage);
@@ -107,30 +288,89 @@ public class WaypointRepository extends BaseObservable<WaypointRepository, List<
     public void clear() {
         logger.debug("removing all waypoints");
         waypoints.clear();
-        notifyObservers();
+        invalidateSpatialIndex();
+        notifyObservers(new ChangeEvent<>(ChangeEvent.Type.CLEARED, new ArrayList<>()));
+    }
+
+    public int size() {
+        return waypoints.size();
+    }
+
+    /**
+     * @param west the western edge in signed degrees, a box over the 180th
+     * meridian has a west greater than its east
+     * @return the waypoints in the box, edges included
+     */
+    public List<Waypoint> getWaypointsInBox(double south, double west, double north, double east) {
+        return spatialIndex().inBox(south, west, north, east);
+    }
+
+    /**
+     * @param distance in metres
+     * @return the waypoints within the distance of the point
+     */
+    public List<Waypoint> getWaypointsWithin(double latitude, double longitude, double distance) {
+        return spatialIndex().within(latitude, longitude, distance);
+    }
+
+    /**
+     * @return the count waypoints closest to the point, closest first
+     */
+    public List<Waypoint> getNearestWaypoints(double latitude, double longitude, int count) {
+        return spatialIndex().nearest(latitude, longitude, count);
+    }
+
+    /**
+     * Makes the next spatial query rebuild the index, called after every
+     * change of the waypoints.
+     */
+    protected void invalidateSpatialIndex() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * @return the spatial index of the waypoints, built on the first query
+     * after a change
+     */
+    private synchronized WaypointKdTree spatialIndex() {
+        long currentVersion = version.get();
+        if (spatialIndex == null || spatialIndexVersion != currentVersion) {
+            spatialIndex = new WaypointKdTree(waypoints);
+            spatialIndexVersion = currentVersion;
+            logger.debug("built spatial index of waypoints: " + spatialIndex.size());
+        }
+        return spatialIndex;
+    }
+
+    /**
+     * Gives incremental observers the row of a changed waypoint.
+     */
+    public WaypointUI getWaypointUI(String waypointName) throws WaypointDoesNotExistException, InvalidModelStateException {
+        return getWaypoint(waypointName).toWaypointUIModel();
     }
 
     @Override
-    public void notifyObservers() {
-        List<WaypointUI> list = new ArrayList<>();
+    protected List<WaypointUI> getData() {
+        List<WaypointUI> list = new ArrayList<>(waypoints.size());
         try {
-            for (Map.Entry<String, Waypoint> entry : waypoints.entrySet()) {
-                Waypoint waypoint = entry.getValue();
-
+            for (Waypoint waypoint : waypoints) {
                 list.add(waypoint.toWaypointUIModel());
             }
-            
-            for (BaseObserver<WaypointRepository, List<WaypointUI>> obsever : obsevers) {
-                obsever.update(list);
-            }
         } catch (InvalidModelStateException ex) {
             logger.error(ex.getMessage());
-            clear();
+            waypoints.clear();
+            list.clear();
         }
+        return list;
     }
 
     public void toggleWaypointExport(String waypointName) throws WaypointDoesNotExistException{
-        getWaypoint(waypointName).toggleExport();
-        notifyObservers();
+        if (!waypoints.toggleExport(waypointName)) {
+            String errorMessage = "toggling waypoint failed: " + waypointName + " not found in the collections";
+            logger.error(errorMessage);
+            throw new WaypointDoesNotExistException(waypointName + " not found in the collections");
+        }
+        invalidateSpatialIndex();
+        notifyObservers(new ChangeEvent<>(ChangeEvent.Type.TOGGLED, waypointName));
     }
 }
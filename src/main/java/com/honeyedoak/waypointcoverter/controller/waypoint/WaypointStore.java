@@ -0,0 +1,96 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2013 Pieter Van Eeckhout.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.honeyedoak.waypointcoverter.controller.waypoint;
+
+import com.honeyedoak.waypointcoverter.model.Waypoint;
+
+import java.util.Collection;
+
+/**
+ * WaypointStore.java (UTF-8)
+ *
+ * <p>Storage backend of a WaypointRepository, waypoints are keyed by their
+ * name.</p>
+ *
+ * <p>A store does not have to keep the Waypoint objects it was given. The
+ * waypoints returned by {@link #get(String)} and by the iterator may be
+ * copies, changes to the export state must go through
+ * {@link #toggleExport(String)}.</p>
+ *
+ * 2026/10/17
+ *
+ * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
+ * @since 2.0.0
+ * @version 2.0.0
+ */
+public interface WaypointStore extends Iterable<Waypoint> {
+
+    public int size();
+
+    public boolean contains(String name);
+
+    /**
+     * @return false when a waypoint with the same name is stored already, the
+     * store is not changed then
+     */
+    public boolean add(Waypoint waypoint);
+
+    /**
+     * Adds waypoints that are known to be new: no name is stored yet and no
+     * name occurs twice. Stores make room for all of them at once.
+     */
+    public default void addAll(Collection<? extends Waypoint> waypoints) {
+        for (Waypoint waypoint : waypoints) {
+            add(waypoint);
+        }
+    }
+
+    /**
+     * Puts the waypoint in the place of the stored waypoint with the same
+     * name.
+     *
+     * @return false when no waypoint has the name, the store is not changed
+     * then
+     */
+    public default boolean replace(Waypoint waypoint) {
+        return remove(waypoint.getName()) && add(waypoint);
+    }
+
+    /**
+     * @return the waypoint, or null when no waypoint has the name
+     */
+    public Waypoint get(String name);
+
+    /**
+     * @return false when no waypoint has the name
+     */
+    public boolean remove(String name);
+
+    /**
+     * @return false when no waypoint has the name
+     */
+    public boolean toggleExport(String name);
+
+    public void clear();
+}
@@ -24,13 +24,12 @@
 package com.honeyedoak.waypointcoverter.model;
 
 import com.honeyedoak.waypointcoverter.exceptions.InvalidModelStateException;
+import com.honeyedoak.waypointcoverter.util.CoordinateFormatter;
 
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.text.DecimalFormat;
-import java.text.DecimalFormatSymbols;
 import org.apache.log4j.Logger;
 
 /**
@@ -51,7 +50,8 @@ public class Waypoint implements Serializable {
     private double longitude, latitude;
     private boolean east, north;
     private transient boolean export;
-    private Logger logger;
+    //shared by all waypoints, a static field is not serialized
+    private static final Logger logger = Logger.getLogger(Waypoint.class);
 
     public Waypoint(String name, double longitude, boolean east, double latitude, boolean north) throws InvalidModelStateException {
         this.name = name;
@@ -60,7 +60,6 @@ public class Waypoint implements Serializable {
         this.east = east;
         this.north = north;
         this.export = true;
-        logger = Logger.getLogger(Waypoint.class);
         validateState();
     }
 
@@ -129,6 +128,20 @@ public class Waypoint implements Serializable {
         this.north = north;
     }
 
+    /**
+     * @return the latitude in degrees, negative in the south
+     */
+    public double getSignedLatitude() {
+        return north ? latitude : -latitude;
+    }
+
+    /**
+     * @return the longitude in degrees, negative in the west
+     */
+    public double getSignedLongitude() {
+        return east ? longitude : -longitude;
+    }
+
     private void validateState() throws InvalidModelStateException {
         validateNorth(north);
         validateEast(east);
@@ -141,9 +154,15 @@ public class Waypoint implements Serializable {
         return export;
     }
     
+    public void setExport(boolean export) {
+        this.export = export;
+    }
+
     public void toggleExport() {
        this.export ^= true;
-       logger.debug("exporting waypoint " + name +": " + export);
+       if (logger.isDebugEnabled()) {
+           logger.debug("exporting waypoint " + name + ": " + export);
+       }
     }
     
     private void validateNorth(boolean north) throws InvalidModelStateException {
@@ -177,18 +196,16 @@ public class Waypoint implements Serializable {
     }
 
     public String toOpelWaypoint() {
-        DecimalFormat decimalFormat = getWaypointDecimalFormat();
-        
         StringBuilder builder = new StringBuilder();
         if (!east) {
             builder.append('-');
         }
-        builder.append(decimalFormat.format(longitude))
+        CoordinateFormatter.append(builder, longitude)
                 .append(',');
         if (!north) {
             builder.append('-');
         }
-        builder.append(decimalFormat.format(latitude))
+        CoordinateFormatter.append(builder, latitude)
                 .append(',');
         builder.append("\"")
                 .append(name)
@@ -198,8 +215,6 @@ public class Waypoint implements Serializable {
     
     @Override
     public String toString() {
-        DecimalFormat decimalFormat = getWaypointDecimalFormat();
-        
         StringBuilder builder = new StringBuilder();
          if (export) {
             builder.append("export");
@@ -214,40 +229,39 @@ public class Waypoint implements Serializable {
         } else {
             builder.append("S");
         }
-        builder.append(decimalFormat.format(this.latitude))
+        CoordinateFormatter.append(builder, this.latitude)
                 .append(" ");
         if(east) {
             builder.append("E");
         } else {
             builder.append("W");
         }
-        builder.append(decimalFormat.format(this.longitude));        
+        CoordinateFormatter.append(builder, this.longitude);
        
        return builder.toString();
     }
     
     public WaypointUI toWaypointUIModel() throws InvalidModelStateException {
-        DecimalFormat decimalFormat = getWaypointDecimalFormat();
-        
-        String latitudeString, longitudeString;
+        StringBuilder latitudeBuilder = new StringBuilder(CoordinateFormatter.MAX_LENGTH + 1);
+        StringBuilder longitudeBuilder = new StringBuilder(CoordinateFormatter.MAX_LENGTH + 1);
         WaypointUI waypointUI;
         
         if (north) {
-            latitudeString = "N";
+            latitudeBuilder.append('N');
         } else {
-            latitudeString = "S";
+            latitudeBuilder.append('S');
         }
-        latitudeString += decimalFormat.format(this.latitude);
+        CoordinateFormatter.append(latitudeBuilder, this.latitude);
         
         if(east) {
-            longitudeString = "E";
+            longitudeBuilder.append('E');
         } else {
-            longitudeString = "W";
+            longitudeBuilder.append('W');
         }
-        longitudeString += decimalFormat.format(this.longitude);
+        CoordinateFormatter.append(longitudeBuilder, this.longitude);
         
         try {
-            waypointUI = new WaypointUI(export, name, latitudeString, longitudeString);
+            waypointUI = new WaypointUI(export, name, latitudeBuilder.toString(), longitudeBuilder.toString());
         } catch (InvalidModelStateException e) {
             throw new InvalidModelStateException("could not convert to WaypointUI: " + e.getMessage());
         }
@@ -264,12 +278,4 @@ public class Waypoint implements Serializable {
     private void writeObject(ObjectOutputStream outputStream) throws IOException {
         outputStream.defaultWriteObject();
     }
-    
-    private DecimalFormat getWaypointDecimalFormat() {
-        DecimalFormat decimalFormat = new DecimalFormat("###.000000");
-        DecimalFormatSymbols decimalSymbol = new DecimalFormatSymbols();
-        decimalSymbol.setDecimalSeparator('.');
-        decimalFormat.setDecimalFormatSymbols(decimalSymbol);
-        return decimalFormat;
-    }
 }
@@ -31,22 +31,25 @@ import java.util.List;
  * <p>Abstract class for OOP purposes, defines the functions and some default
  * behaviour of Observer pattern.</p>
  *
+ * <p>Changes are announced with a ChangeEvent. Observers that do not follow
+ * changes get the full data instead, which is built once for all of them.</p>
+ *
  * 2013/06/20
  *
  * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
  * @since 1.0.1
- * @version 1.0.1
+ * @version 2.0.0
  */
-public abstract class BaseObservable<T,U> {
+public abstract class BaseObservable<T,U,K> {
     
-    protected List<BaseObserver<T,U>> obsevers;
+    protected List<BaseObserver<T,U,K>> obsevers;
     
-    public void addObsever(BaseObserver<T,U> obsever) {
+    public void addObsever(BaseObserver<T,U,K> obsever) {
         obsevers.add(obsever);
-        notifyObservers();
+        obsever.update(getData());
     }
     
-    public void removeObsever(BaseObserver<T,U> obsever) {
+    public void removeObsever(BaseObserver<T,U,K> obsever) {
         obsevers.remove(obsever);
     }
     
@@ -54,5 +57,36 @@ public abstract class BaseObservable<T,U> {
         obsevers.clear();
     }
     
-    public abstract void notifyObservers();
+    /**
+     * Gives every observer the full data.
+     */
+    public void notifyObservers() {
+        U data = getData();
+        for (BaseObserver<T,U,K> obsever : obsevers) {
+            obsever.update(data);
+        }
+    }
+
+    /**
+     * Tells the observers what changed, observers that do not follow changes
+     * get the full data.
+     */
+    public void notifyObservers(ChangeEvent<K> event) {
+        U data = null;
+        for (BaseObserver<T,U,K> obsever : obsevers) {
+            if (obsever.isIncremental()) {
+                obsever.changed(event);
+            } else {
+                if (data == null) {
+                    data = getData();
+                }
+                obsever.update(data);
+            }
+        }
+    }
+
+    /**
+     * @return the full data handed to the observers
+     */
+    protected abstract U getData();
 }
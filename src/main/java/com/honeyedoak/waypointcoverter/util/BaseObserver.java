@@ -29,17 +29,33 @@ package com.honeyedoak.waypointcoverter.util;
  * <p>Abstract class for OOP purposes, defines the functions and some default
  * behaviour of Observer pattern.</p>
  *
+ * <p>By default an observer gets the full data on every change. An observer
+ * that can apply a ChangeEvent overrides {@link #isIncremental()} and
+ * {@link #changed(ChangeEvent)}, it then only gets the full data once, when
+ * it starts observing.</p>
+ *
  * 2013/06/20
  *
  * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
  * @since 1.0.1
- * @version 1.0.1
+ * @version 2.0.0
  */
-public abstract class BaseObserver<T, U> {
+public abstract class BaseObserver<T, U, K> {
     
     protected U data;
     
     public void update(U data) {
         this.data = data;
     }
+
+    /**
+     * @return whether the observer is told about changes through
+     * {@link #changed(ChangeEvent)} instead of getting the full data
+     */
+    public boolean isIncremental() {
+        return false;
+    }
+
+    public void changed(ChangeEvent<K> event) {
+    }
 }
@@ -0,0 +1,83 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2013 Pieter Van Eeckhout.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.honeyedoak.waypointcoverter.util;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ChangeEvent.java (UTF-8)
+ *
+ * <p>Describes a change of a BaseObservable: what happened and the keys of
+ * the items it happened to.</p>
+ *
+ * 2026/10/17
+ *
+ * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
+ * @since 2.0.0
+ * @version 2.0.0
+ */
+public final class ChangeEvent<K> {
+
+    public enum Type {
+        ADDED, REMOVED, TOGGLED,
+        /**
+         * The items were replaced by items with the same keys.
+         */
+        UPDATED,
+        /**
+         * All items were removed, the event has no keys.
+         */
+        CLEARED
+    }
+
+    private final Type type;
+    private final List<K> keys;
+
+    public ChangeEvent(Type type, K key) {
+        this(type, Collections.singletonList(key));
+    }
+
+    /**
+     * @param type what happened
+     * @param keys the keys of the changed items, in the order they changed
+     */
+    public ChangeEvent(Type type, List<K> keys) {
+        this.type = type;
+        this.keys = Collections.unmodifiableList(keys);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public List<K> getKeys() {
+        return keys;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + keys.size() + " keys";
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2013 Pieter Van Eeckhout.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.honeyedoak.waypointcoverter.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+
+/**
+ * CoordinateFormatter.java (UTF-8)
+ *
+ * <p>Writes coordinates with six fraction digits, exactly like the
+ * <code>###.000000</code> DecimalFormat pattern with a '.' separator (half
+ * even rounding, no leading zero before the separator), but straight into
+ * the target buffer without creating any objects.</p>
+ *
+ * <p>The value is scaled with a single multiplication. Only when the scaled
+ * value lies too close to a rounding tie to trust that multiplication, the
+ * exact decimal value of the double is rounded with a BigDecimal instead.
+ * Values that do not fit the fast path at all (not finite or too large) fall
+ * back on DecimalFormat itself.</p>
+ *
+ * 2026/10/17
+ *
+ * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
+ * @since 2.0.0
+ * @version 2.0.0
+ */
+public final class CoordinateFormatter {
+
+    /**
+     * the number of fraction digits written
+     */
+    public static final int FRACTION_DIGITS = 6;
+    /**
+     * the maximum number of characters written for a value on the fast path
+     */
+    public static final int MAX_LENGTH = 21;
+    private static final long SCALE = 1000000L;
+    //below this value the error of the scaling multiplication is smaller than 2^-20
+    private static final double FAST_PATH_LIMIT = 1000.0;
+    //above this value the output is no longer checked against DecimalFormat, it falls back on it
+    private static final double EXACT_PATH_LIMIT = 1e9;
+    private static final double TIE_MARGIN = 1e-6;
+
+    private CoordinateFormatter() {
+    }
+
+    public static String format(double value) {
+        return append(new StringBuilder(MAX_LENGTH), value).toString();
+    }
+
+    /**
+     * Appends the formatted value to the builder.
+     *
+     * @param builder the builder to append to
+     * @param value the value to format
+     * @return the builder
+     */
+    public static StringBuilder append(StringBuilder builder, double value) {
+        double abs = Math.abs(value);
+        if (!(abs < EXACT_PATH_LIMIT)) {
+            return builder.append(formatWithDecimalFormat(value));
+        }
+
+        if (isNegative(value)) {
+            builder.append('-');
+        }
+        long units = scaledUnits(abs);
+        long integerPart = units / SCALE;
+        if (integerPart > 0) {
+            builder.append(integerPart);
+        }
+        builder.append('.');
+        int fraction = (int) (units % SCALE);
+        for (int divisor = (int) SCALE / 10; divisor > 0; divisor /= 10) {
+            builder.append((char) ('0' + fraction / divisor % 10));
+        }
+        return builder;
+    }
+
+    /**
+     * Puts the formatted value in the buffer as ASCII bytes, at the current
+     * position of the buffer.
+     *
+     * @param buffer the buffer to write to, it needs room for
+     * {@link #MAX_LENGTH} bytes
+     * @param value the value to format
+     * @return the buffer
+     */
+    public static ByteBuffer put(ByteBuffer buffer, double value) {
+        double abs = Math.abs(value);
+        if (!(abs < EXACT_PATH_LIMIT)) {
+            String formatted = formatWithDecimalFormat(value);
+            for (int i = 0; i < formatted.length(); i++) {
+                char c = formatted.charAt(i);
+                buffer.put(c < 0x100 ? (byte) c : (byte) '?');
+            }
+            return buffer;
+        }
+
+        if (isNegative(value)) {
+            buffer.put((byte) '-');
+        }
+        long units = scaledUnits(abs);
+        long integerPart = units / SCALE;
+        if (integerPart > 0) {
+            int digits = 1;
+            for (long rest = integerPart / 10; rest > 0; rest /= 10) {
+                digits++;
+            }
+            int position = buffer.position();
+            for (int i = position + digits - 1; i >= position; i--) {
+                buffer.put(i, (byte) ('0' + integerPart % 10));
+                integerPart /= 10;
+            }
+            buffer.position(position + digits);
+        }
+        buffer.put((byte) '.');
+        int fraction = (int) (units % SCALE);
+        for (int divisor = (int) SCALE / 10; divisor > 0; divisor /= 10) {
+            buffer.put((byte) ('0' + fraction / divisor % 10));
+        }
+        return buffer;
+    }
+
+    /**
+     * DecimalFormat decides on the sign before rounding, so small negative
+     * values and negative zero keep their minus sign.
+     */
+    private static boolean isNegative(double value) {
+        return value < 0.0 || (value == 0.0 && 1 / value < 0.0);
+    }
+
+    /**
+     * @param abs a non negative value below {@link #EXACT_PATH_LIMIT}
+     * @return the value in millionths, rounded half even
+     */
+    private static long scaledUnits(double abs) {
+        if (abs < FAST_PATH_LIMIT) {
+            double scaled = abs * SCALE;
+            double floor = Math.floor(scaled);
+            double fraction = scaled - floor;
+            if (Math.abs(fraction - 0.5) > TIE_MARGIN) {
+                return (long) floor + (fraction > 0.5 ? 1 : 0);
+            }
+        }
+        return new BigDecimal(abs).setScale(FRACTION_DIGITS, RoundingMode.HALF_EVEN).unscaledValue().longValue();
+    }
+
+    private static String formatWithDecimalFormat(double value) {
+        DecimalFormat decimalFormat = new DecimalFormat("###.000000");
+        DecimalFormatSymbols decimalSymbol = new DecimalFormatSymbols();
+        decimalSymbol.setDecimalSeparator('.');
+        decimalFormat.setDecimalFormatSymbols(decimalSymbol);
+        return decimalFormat.format(value);
+    }
+}
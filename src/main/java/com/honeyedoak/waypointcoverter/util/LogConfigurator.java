@@ -0,0 +1,122 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2013 Pieter Van Eeckhout.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.honeyedoak.waypointcoverter.util;
+
+import org.apache.log4j.Appender;
+import org.apache.log4j.AsyncAppender;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.apache.log4j.PropertyConfigurator;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * LogConfigurator.java (UTF-8)
+ *
+ * <p>Configures log4j from a properties file, like the PropertyConfigurator,
+ * and can put the appenders of the root logger behind an AsyncAppender. The
+ * PropertyConfigurator can not configure an AsyncAppender itself, so it is
+ * switched on with these keys of the same file:</p>
+ *
+ * <ul>
+ * <li><code>waypointconverter.async</code>: true to log asynchronously</li>
+ * <li><code>waypointconverter.async.bufferSize</code>: the number of events
+ * that may wait to be written</li>
+ * <li><code>waypointconverter.async.blocking</code>: false to drop events
+ * instead of waiting when the buffer is full</li>
+ * </ul>
+ *
+ * <p>Asynchronous events carry no location info, a layout should not use
+ * <code>%L</code>, <code>%F</code>, <code>%M</code> or <code>%l</code>.</p>
+ *
+ * 2026/10/17
+ *
+ * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
+ * @since 2.0.0
+ * @version 2.0.0
+ */
+public final class LogConfigurator {
+
+    public static final String ASYNC = "waypointconverter.async";
+    public static final String ASYNC_BUFFER_SIZE = ASYNC + ".bufferSize";
+    public static final String ASYNC_BLOCKING = ASYNC + ".blocking";
+    private static final String ASYNC_APPENDER_NAME = "ASYNC";
+
+    private LogConfigurator() {
+    }
+
+    /**
+     * @param settingsPath the log4j properties file
+     */
+    public static void configure(String settingsPath) {
+        Properties properties = new Properties();
+        try (InputStream inputStream = new FileInputStream(settingsPath)) {
+            properties.load(inputStream);
+        } catch (IOException e) {
+            //let log4j report the missing file the way it always did
+            PropertyConfigurator.configure(settingsPath);
+            return;
+        }
+
+        PropertyConfigurator.configure(properties);
+        if (Boolean.parseBoolean(properties.getProperty(ASYNC, "false"))) {
+            makeAsynchronous(Integer.parseInt(properties.getProperty(ASYNC_BUFFER_SIZE, "" + AsyncAppender.DEFAULT_BUFFER_SIZE).trim()),
+                    Boolean.parseBoolean(properties.getProperty(ASYNC_BLOCKING, "true").trim()));
+        }
+    }
+
+    private static void makeAsynchronous(int bufferSize, boolean blocking) {
+        Logger root = Logger.getRootLogger();
+        List<Appender> appenders = new ArrayList<>();
+        Enumeration<?> enumeration = root.getAllAppenders();
+        while (enumeration.hasMoreElements()) {
+            appenders.add((Appender) enumeration.nextElement());
+        }
+        if (appenders.isEmpty()) {
+            return;
+        }
+
+        AsyncAppender asyncAppender = new AsyncAppender();
+        asyncAppender.setName(ASYNC_APPENDER_NAME);
+        asyncAppender.setBufferSize(bufferSize);
+        asyncAppender.setBlocking(blocking);
+        asyncAppender.setLocationInfo(false);
+        for (Appender appender : appenders) {
+            //removeAllAppenders would close them
+            root.removeAppender(appender);
+            asyncAppender.addAppender(appender);
+        }
+        root.addAppender(asyncAppender);
+
+        //the dispatcher thread is a daemon, write out what is still queued when the JVM stops
+        Runtime.getRuntime().addShutdownHook(new Thread(LogManager::shutdown, "log shutdown"));
+        root.debug("logging asynchronously, buffer size: " + bufferSize);
+    }
+}
@@ -42,7 +42,7 @@ import java.util.List;
  * @since 1.0.0
  * @version 1.0.1
  */
-public abstract class BaseUI extends BaseObserver<WaypointRepository, List<WaypointUI>> {
+public abstract class BaseUI extends BaseObserver<WaypointRepository, List<WaypointUI>, String> {
     
     protected DomainFacade domainFacade;
 
@@ -0,0 +1,153 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2013 Pieter Van Eeckhout.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.honeyedoak.waypointcoverter.view;
+
+import com.honeyedoak.waypointcoverter.controller.batch.BatchController;
+import com.honeyedoak.waypointcoverter.controller.batch.BatchResult;
+import com.honeyedoak.waypointcoverter.exceptions.FileException;
+import com.honeyedoak.waypointcoverter.exceptions.InvalidModelStateException;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CommandLine.java (UTF-8)
+ *
+ * <p>Headless front end: converts the files and directories given on the
+ * command line to Opel waypoint files.</p>
+ *
+ * 2026/10/17
+ *
+ * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
+ * @since 2.0.0
+ * @version 2.0.0
+ */
+public class CommandLine {
+
+	public static final int EXIT_OK = 0;
+	public static final int EXIT_FAILURES = 1;
+	public static final int EXIT_USAGE = 2;
+
+	private static final String USAGE = "usage: WaypointConverter [options] <file or directory>...%n"
+			+ "%n"
+			+ "Converts Garmin BaseCamp/MapSource .txt, .csv and .gpx files, also gzipped or zipped,%n"
+			+ "to Opel/VW waypoint files.%n"
+			+ "Without arguments the graphical interface is started.%n"
+			+ "%n"
+			+ "options:%n"
+			+ "  -o, --output <directory>  write the output files to this directory%n"
+			+ "                            (default: next to the input files)%n"
+			+ "  -t, --threads <count>     number of files converted in parallel%n"
+			+ "                            (default: number of processors)%n"
+			+ "  -f, --overwrite           replace existing output files%n"
+			+ "  -h, --help                show this help%n";
+
+	private final PrintStream out;
+	private final PrintStream err;
+
+	public CommandLine() {
+		this(System.out, System.err);
+	}
+
+	public CommandLine(PrintStream out, PrintStream err) {
+		this.out = out;
+		this.err = err;
+	}
+
+	/**
+	 * Runs the batch conversion described by the arguments.
+	 *
+	 * @param args the command line arguments
+	 * @return the exit code of the application
+	 */
+	public int run(String[] args) {
+		List<File> inputs = new ArrayList<>();
+		File outputDirectory = null;
+		int threads = Runtime.getRuntime().availableProcessors();
+		boolean overwrite = false;
+
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+					case "-o":
+					case "--output":
+						outputDirectory = new File(optionValue(args, ++i));
+						break;
+					case "-t":
+					case "--threads":
+						threads = Integer.parseInt(optionValue(args, ++i));
+						break;
+					case "-f":
+					case "--overwrite":
+						overwrite = true;
+						break;
+					case "-h":
+					case "--help":
+						out.printf(USAGE);
+						return EXIT_OK;
+					default:
+						if (args[i].startsWith("-")) {
+							throw new IllegalArgumentException("unknown option " + args[i]);
+						}
+						inputs.add(new File(args[i]));
+				}
+			}
+			if (inputs.isEmpty()) {
+				throw new IllegalArgumentException("no input files given");
+			}
+		} catch (IllegalArgumentException e) {
+			err.println(e.getMessage());
+			err.printf(USAGE);
+			return EXIT_USAGE;
+		}
+
+		try {
+			BatchResult result = new BatchController(threads, overwrite).convert(inputs, outputDirectory);
+			for (String failure : result.getFailures()) {
+				err.println("failed: " + failure);
+			}
+			out.println("converted " + result.getConverted() + " files, " + result.getFailures().size() + " failed");
+			return result.isSuccessful() ? EXIT_OK : EXIT_FAILURES;
+		} catch (InvalidModelStateException e) {
+			err.println(e.getMessage());
+			return EXIT_USAGE;
+		} catch (FileException e) {
+			err.println("conversion failed: " + e.getMessage());
+			return EXIT_FAILURES;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			err.println("conversion interrupted");
+			return EXIT_FAILURES;
+		}
+	}
+
+	private String optionValue(String[] args, int index) {
+		if (index >= args.length) {
+			throw new IllegalArgumentException("missing value for option " + args[index - 1]);
+		}
+		return args[index];
+	}
+}
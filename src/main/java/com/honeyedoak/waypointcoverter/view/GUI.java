@@ -24,8 +24,11 @@
 package com.honeyedoak.waypointcoverter.view;
 
 import com.honeyedoak.waypointcoverter.controller.DomainFacade;
+import com.honeyedoak.waypointcoverter.controller.waypoint.DuplicatePolicy;
 import com.honeyedoak.waypointcoverter.exceptions.*;
+import com.honeyedoak.waypointcoverter.model.Waypoint;
 import com.honeyedoak.waypointcoverter.model.WaypointUI;
+import com.honeyedoak.waypointcoverter.util.ChangeEvent;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -36,17 +39,32 @@ import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * GUI.java (UTF-8)
  * <p>
  * <p>Graphical UI representation.</p>
  * <p>
+ * <p>The waypoint table follows the changes of the repository. It only keeps
+ * the names of its rows and formats the rows that are painted.</p>
+ * <p>
+ * <p>Imports and exports run on a SwingWorker. Their progress is shown under
+ * the table, where they can also be cancelled. An import is loaded in the
+ * repository on the worker thread, once the whole file was read, and an
+ * export collects its waypoints there too. The repository must therefore be
+ * a ConcurrentWaypointRepository. Its changes are applied to the table on the
+ * event dispatch thread, in the order they were made.</p>
+ * <p>
  * 2013/06/19
  *
  * @author Pieter Van Eeckhout <vaneeckhout.pieter@gmail.com>
- * @version 1.0.2
+ * @version 2.0.0
  * @since 1.0.1
  */
 public class GUI extends BaseUI {
@@ -55,12 +73,20 @@ public class GUI extends BaseUI {
 	private final static boolean shouldWeightX = true;
 	private final static boolean shouldWeightY = true;
 	private final static boolean RIGHT_TO_LEFT = false;
+	//waypoints between two progress reports of a running task
+	private final static int PROGRESS_STEP = 1000;
+	//about 10 meter, waypoints this close with the same name are merged
+	private final static double NEARBY_EPSILON = 0.0001;
+	//the merge distances in metres offered, 0 is off
+	private final static int[] MERGE_DISTANCES = {0, 10, 25, 100};
 	private JFrame mainFrame;
 	private JPanel contentPanel;
 	private JScrollPane tableScrollPane;
 	private WaypointTable waypointTable;
 	private JLabel lblInput, lblOutput;
-	private JButton btnBrowseInput, btnBrowseOutput, btnLoad, btnExport;
+	private JButton btnBrowseInput, btnBrowseOutput, btnLoad, btnExport, btnCancel;
+	private JProgressBar progressBar;
+	private SwingWorker<?, Integer> task;
 	private JTextField txtInput, txtOutput;
 	private JMenuBar menuBar;
 	private JMenu fileMenu, settingsMenu, infoMenu;
@@ -88,6 +114,11 @@ public class GUI extends BaseUI {
 		btnBrowseOutput = new JButton("Browse");
 		btnLoad = new JButton("load");
 		btnExport = new JButton("export");
+		btnCancel = new JButton("cancel");
+		btnCancel.setEnabled(false);
+		progressBar = new JProgressBar();
+		progressBar.setStringPainted(true);
+		progressBar.setString("");
 		txtInput = new JTextField();
 		txtOutput = new JTextField();
 		lblInput = new JLabel("input file:");
@@ -153,6 +184,24 @@ public class GUI extends BaseUI {
 		settingsMenu = new JMenu("Settings");
 		settingsMenu.setMnemonic(KeyEvent.VK_S);
 		settingsMenu.getAccessibleContext().setAccessibleDescription("Opens the Settings");
+		//duplicate names submenu, one choice of the DuplicatePolicy
+		JMenu duplicatesMenu = new JMenu("Duplicate names");
+		duplicatesMenu.getAccessibleContext().setAccessibleDescription("What loading does with waypoints whose name is taken");
+		ButtonGroup duplicatesGroup = new ButtonGroup();
+		addDuplicatePolicyItem(duplicatesMenu, duplicatesGroup, "Fail the import", DuplicatePolicy.FAIL);
+		addDuplicatePolicyItem(duplicatesMenu, duplicatesGroup, "Keep the first", DuplicatePolicy.SKIP);
+		addDuplicatePolicyItem(duplicatesMenu, duplicatesGroup, "Replace", DuplicatePolicy.REPLACE);
+		addDuplicatePolicyItem(duplicatesMenu, duplicatesGroup, "Add with a suffix", DuplicatePolicy.SUFFIX);
+		addDuplicatePolicyItem(duplicatesMenu, duplicatesGroup, "Merge when nearby, else suffix", DuplicatePolicy.nearby(NEARBY_EPSILON));
+		settingsMenu.add(duplicatesMenu);
+		//merge nearby submenu, the distance near-duplicates are merged within on export
+		JMenu mergeMenu = new JMenu("Merge nearby on export");
+		mergeMenu.getAccessibleContext().setAccessibleDescription("Leave out exported waypoints close to one exported before");
+		ButtonGroup mergeGroup = new ButtonGroup();
+		for (int distance : MERGE_DISTANCES) {
+			addMergeDistanceItem(mergeMenu, mergeGroup, distance == 0 ? "Off" : distance + " m", distance);
+		}
+		settingsMenu.add(mergeMenu);
 		//add to menuBar
 		menuBar.add(settingsMenu);
 
@@ -195,6 +244,8 @@ public class GUI extends BaseUI {
 		GridBagConstraints txtOutputConstraints = new GridBagConstraints();
 		GridBagConstraints btnBrowseOutputConstraints = new GridBagConstraints();
 		GridBagConstraints btnExportConstraints = new GridBagConstraints();
+		GridBagConstraints progressBarConstraints = new GridBagConstraints();
+		GridBagConstraints btnCancelConstraints = new GridBagConstraints();
 
 		//list portion
 		if (shouldFill) {
@@ -325,6 +376,60 @@ public class GUI extends BaseUI {
 		btnExportConstraints.gridy = 2;
 		btnExportConstraints.insets = new Insets(10, 10, 0, 0);
 		contentPanel.add(btnExport, btnExportConstraints);
+
+		//progress portion
+		if (shouldFill) {
+			progressBarConstraints.fill = GridBagConstraints.HORIZONTAL;
+		}
+		if (shouldWeightX) {
+			progressBarConstraints.weightx = 1.0;
+		}
+		if (shouldWeightY) {
+			progressBarConstraints.weighty = 0.0;
+		}
+		progressBarConstraints.gridx = 0;
+		progressBarConstraints.gridy = 3;
+		progressBarConstraints.gridwidth = 3;
+		progressBarConstraints.insets = new Insets(10, 0, 0, 0);
+		contentPanel.add(progressBar, progressBarConstraints);
+
+		if (shouldFill) {
+			btnCancelConstraints.fill = GridBagConstraints.NONE;
+		}
+		if (shouldWeightX) {
+			btnCancelConstraints.weightx = 0.0;
+		}
+		if (shouldWeightY) {
+			btnCancelConstraints.weighty = 0.0;
+		}
+		btnCancelConstraints.gridx = 3;
+		btnCancelConstraints.gridy = 3;
+		btnCancelConstraints.insets = new Insets(10, 10, 0, 0);
+		contentPanel.add(btnCancel, btnCancelConstraints);
+	}
+
+	private void addDuplicatePolicyItem(JMenu menu, ButtonGroup group, String text, final DuplicatePolicy policy) {
+		JRadioButtonMenuItem item = new JRadioButtonMenuItem(text, domainFacade.getDuplicatePolicy().getMode() == policy.getMode());
+		item.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				domainFacade.setDuplicatePolicy(policy);
+			}
+		});
+		group.add(item);
+		menu.add(item);
+	}
+
+	private void addMergeDistanceItem(JMenu menu, ButtonGroup group, String text, final double distance) {
+		JRadioButtonMenuItem item = new JRadioButtonMenuItem(text, domainFacade.getMergeDistance() == distance);
+		item.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				domainFacade.setMergeDistance(distance);
+			}
+		});
+		group.add(item);
+		menu.add(item);
 	}
 
 	private void addActionListeners() {
@@ -340,35 +445,191 @@ public class GUI extends BaseUI {
 
 		//export
 		btnExport.addActionListener(new ExportOutputListener());
+
+		//cancel
+		btnCancel.addActionListener(new CancelTaskListener());
+	}
+
+	private void startTask(SwingWorker<?, Integer> task) {
+		this.task = task;
+		btnBrowseInput.setEnabled(false);
+		btnLoad.setEnabled(false);
+		btnExport.setEnabled(false);
+		btnCancel.setEnabled(true);
+		task.execute();
+	}
+
+	private void finishTask(String message) {
+		task = null;
+		btnBrowseInput.setEnabled(true);
+		btnLoad.setEnabled(true);
+		btnExport.setEnabled(true);
+		btnCancel.setEnabled(false);
+		progressBar.setIndeterminate(false);
+		progressBar.setValue(0);
+		progressBar.setString(message);
 	}
 
 	@Override
 	public void update(List<WaypointUI> data) {
 		if (waypointTable != null) {
 			waypointTable.setData(data);
-			//waypointTable.revalidate();
-			//waypointTable.repaint();
-			tableScrollPane.revalidate();
-			tableScrollPane.repaint();
+		}
+	}
+
+	@Override
+	public boolean isIncremental() {
+		return true;
+	}
+
+	@Override
+	public void changed(final ChangeEvent<String> event) {
+		//also queued on the EDT, so it can not overtake a change of a worker
+		SwingUtilities.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				applyChange(event);
+			}
+		});
+	}
+
+	private void applyChange(ChangeEvent<String> event) {
+		if (waypointTable != null) {
+			waypointTable.changed(event);
 		}
 	}
 
 	class WaypointUITableModel extends AbstractTableModel {
 
+		//formatted rows kept, a few screens full
+		private static final int CACHED_ROWS = 512;
 		private final String[] columnNames = {"Export", "Name", "Latitude", "Longgitude"};
-		private List<WaypointUI> data;
+		private final List<String> names;
+		//the row of every name, so a change does not search the names
+		private final Map<String, Integer> rowIndex;
+		private final Map<String, WaypointUI> rows;
 
 		public WaypointUITableModel() {
-			data = new ArrayList<>();
+			names = new ArrayList<>();
+			rowIndex = new HashMap<>();
+			rows = new RowCache(CACHED_ROWS);
 		}
 
 		public void setData(List<WaypointUI> data) {
-			this.data = data;
+			names.clear();
+			rowIndex.clear();
+			rows.clear();
+			for (WaypointUI waypoint : data) {
+				rowIndex.put(waypoint.getName(), names.size());
+				names.add(waypoint.getName());
+			}
+			fireTableDataChanged();
+		}
+
+		public void changed(ChangeEvent<String> event) {
+			List<String> keys = event.getKeys();
+			switch (event.getType()) {
+				case ADDED:
+					if (!keys.isEmpty()) {
+						int firstRow = names.size();
+						for (String name : keys) {
+							rowIndex.put(name, names.size());
+							names.add(name);
+						}
+						fireTableRowsInserted(firstRow, names.size() - 1);
+					}
+					break;
+				case REMOVED:
+					removeRows(keys);
+					break;
+				case TOGGLED:
+				case UPDATED:
+					int firstUpdated = Integer.MAX_VALUE;
+					int lastUpdated = -1;
+					for (String name : keys) {
+						rows.remove(name);
+						Integer row = rowIndex.get(name);
+						if (row != null) {
+							firstUpdated = Math.min(firstUpdated, row);
+							lastUpdated = Math.max(lastUpdated, row);
+						}
+					}
+					if (lastUpdated >= 0) {
+						fireTableRowsUpdated(firstUpdated, lastUpdated);
+					}
+					break;
+				case CLEARED:
+					int rowCount = names.size();
+					names.clear();
+					rowIndex.clear();
+					rows.clear();
+					if (rowCount > 0) {
+						fireTableRowsDeleted(0, rowCount - 1);
+					}
+					break;
+				default:
+					fireTableDataChanged();
+			}
+		}
+
+		/**
+		 * Removes the rows of the names in one pass over the rows behind the
+		 * first removed one.
+		 */
+		private void removeRows(List<String> keys) {
+			int firstRow = Integer.MAX_VALUE;
+			int removedRow = -1;
+			for (String name : keys) {
+				rows.remove(name);
+				Integer row = rowIndex.remove(name);
+				if (row != null) {
+					firstRow = Math.min(firstRow, row);
+					removedRow = row;
+				}
+			}
+			if (removedRow < 0) {
+				return;
+			}
+
+			int write = firstRow;
+			for (int read = firstRow; read < names.size(); read++) {
+				String name = names.get(read);
+				//the removed names are no longer in the index
+				if (rowIndex.containsKey(name)) {
+					rowIndex.put(name, write);
+					names.set(write++, name);
+				}
+			}
+			int removedCount = names.size() - write;
+			names.subList(write, names.size()).clear();
+
+			if (removedCount == 1) {
+				fireTableRowsDeleted(removedRow, removedRow);
+			} else {
+				fireTableDataChanged();
+			}
+		}
+
+		/**
+		 * @return the formatted row, null when the waypoint is gone
+		 */
+		private WaypointUI getRow(int rowIndex) {
+			String name = names.get(rowIndex);
+			WaypointUI waypoint = rows.get(name);
+			if (waypoint == null) {
+				try {
+					waypoint = domainFacade.getWaypointUI(name);
+					rows.put(name, waypoint);
+				} catch (WaypointDoesNotExistException | InvalidModelStateException ex) {
+					return null;
+				}
+			}
+			return waypoint;
 		}
 
 		@Override
 		public int getRowCount() {
-			return data.size();
+			return names.size();
 		}
 
 		@Override
@@ -383,13 +644,17 @@ public class GUI extends BaseUI {
 
 		@Override
 		public Object getValueAt(int rowIndex, int columnIndex) {
-			WaypointUI waypoint = data.get(rowIndex);
+			if (columnIndex == 1) {
+				return names.get(rowIndex);
+			}
+			WaypointUI waypoint = getRow(rowIndex);
+			if (waypoint == null) {
+				return null;
+			}
 
 			switch (columnIndex) {
 				case 0:
 					return waypoint.isExport();
-				case 1:
-					return waypoint.getName();
 				case 2:
 					return waypoint.getLatitude();
 				case 3:
@@ -404,7 +669,7 @@ public class GUI extends BaseUI {
 			if (columnIndex == 0) {
 				if (value instanceof Boolean) {
 					try {
-						domainFacade.toggleWaypointExport(data.get(rowIndex).getName());
+						domainFacade.toggleWaypointExport(names.get(rowIndex));
 					} catch (WaypointDoesNotExistException ex) {
 						JOptionPane.showMessageDialog(mainFrame, value);
 					}
@@ -414,7 +679,7 @@ public class GUI extends BaseUI {
 
 		@Override
 		public Class getColumnClass(int c) {
-			return getValueAt(0, c).getClass();
+			return c == 0 ? Boolean.class : String.class;
 		}
 
 		@Override
@@ -423,6 +688,25 @@ public class GUI extends BaseUI {
 		}
 	}
 
+	/**
+	 * The least recently used formatted rows, up to a maximum.
+	 */
+	private static final class RowCache extends LinkedHashMap<String, WaypointUI> {
+
+		private static final long serialVersionUID = 1L;
+		private final int maximum;
+
+		private RowCache(int maximum) {
+			super(2 * maximum, 0.75f, true);
+			this.maximum = maximum;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, WaypointUI> eldest) {
+			return size() > maximum;
+		}
+	}
+
 	class WaypointTable extends JTable {
 
 		public WaypointTable() {
@@ -433,6 +717,11 @@ public class GUI extends BaseUI {
 			WaypointUITableModel tableModel = (WaypointUITableModel) super.getModel();
 			tableModel.setData(data);
 		}
+
+		public void changed(ChangeEvent<String> event) {
+			WaypointUITableModel tableModel = (WaypointUITableModel) super.getModel();
+			tableModel.changed(event);
+		}
 	}
 
 	class BrowseInputListener implements ActionListener {
@@ -447,29 +736,229 @@ public class GUI extends BaseUI {
 			if (returnVal == JFileChooser.APPROVE_OPTION) {
 				String filePath = fileChooser.getSelectedFile().getAbsolutePath();
 				txtInput.setText(filePath);
-				try {
-					domainFacade.loadFile(filePath);
-				} catch (FileException | ProcessingException ex) {
-					JOptionPane.showMessageDialog(mainFrame, "import failed: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-				} catch (FatalException ex) {
+				startTask(new LoadWorker(filePath));
+			}
+		}
+	}
+
+	class LoadInputListener implements ActionListener {
+
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			startTask(new LoadWorker(txtInput.getText()));
+		}
+	}
+
+	class CancelTaskListener implements ActionListener {
+
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			if (task != null) {
+				task.cancel(false);
+			}
+		}
+	}
+
+	/**
+	 * A background task of the GUI. A cancelled SwingWorker calls done right
+	 * away, while its doInBackground may still be running. The buttons are
+	 * only enabled again once the background work has really stopped, so a
+	 * new task can not run into the cleanup of a cancelled one.
+	 */
+	abstract class TaskWorker<T> extends SwingWorker<T, Integer> {
+
+		private static final int NEW = 0;
+		private static final int RUNNING = 1;
+		private static final int STOPPED = 2;
+		private final AtomicInteger state = new AtomicInteger(NEW);
+		//only used on the EDT
+		private boolean cancelReported;
+
+		protected abstract T work() throws Exception;
+
+		protected abstract String cancelledMessage();
+
+		@Override
+		protected final T doInBackground() throws Exception {
+			if (!state.compareAndSet(NEW, RUNNING)) {
+				//cancelled before it started
+				return null;
+			}
+			try {
+				return work();
+			} finally {
+				state.set(STOPPED);
+				if (isCancelled()) {
+					SwingUtilities.invokeLater(this::reportCancelled);
+				}
+			}
+		}
+
+		/**
+		 * Handles a cancelled task in done.
+		 *
+		 * @return whether the task was cancelled
+		 */
+		protected boolean handleCancelled() {
+			if (!isCancelled()) {
+				return false;
+			}
+			if (state.compareAndSet(NEW, STOPPED) || state.get() == STOPPED) {
+				reportCancelled();
+			} else {
+				//doInBackground reports the cancellation when it returns
+				progressBar.setString("cancelling");
+			}
+			return true;
+		}
+
+		private void reportCancelled() {
+			if (!cancelReported) {
+				cancelReported = true;
+				finishTask(cancelledMessage());
+			}
+		}
+	}
+
+	/**
+	 * Reads a file in the background and loads it in the repository when it
+	 * was read completely. The waypoints are added on the worker thread, which
+	 * the concurrent repository allows, the table follows its change events.
+	 */
+	class LoadWorker extends TaskWorker<List<Waypoint>> {
+
+		private final String filePath;
+		private int waypointCount;
+		private int duplicates;
+
+		public LoadWorker(String filePath) {
+			this.filePath = filePath;
+			progressBar.setIndeterminate(true);
+			progressBar.setString("reading " + filePath);
+		}
+
+		@Override
+		protected List<Waypoint> work() throws Exception {
+			List<Waypoint> waypoints = domainFacade.readFile(filePath, waypoint -> {
+				if (isCancelled()) {
+					throw new ProcessingException("import cancelled");
+				}
+				if (++waypointCount % PROGRESS_STEP == 0) {
+					publish(waypointCount);
+				}
+			});
+			if (isCancelled()) {
+				throw new ProcessingException("import cancelled");
+			}
+			duplicates = domainFacade.addWaypoints(waypoints);
+			return waypoints;
+		}
+
+		@Override
+		protected String cancelledMessage() {
+			return "import cancelled";
+		}
+
+		@Override
+		protected void process(List<Integer> counts) {
+			progressBar.setString(counts.get(counts.size() - 1) + " waypoints read");
+		}
+
+		@Override
+		protected void done() {
+			if (handleCancelled()) {
+				return;
+			}
+			try {
+				List<Waypoint> waypoints = get();
+				finishTask(waypoints.size() + " waypoints loaded" + (duplicates > 0 ? ", " + duplicates + " duplicate names" : ""));
+			} catch (ExecutionException ex) {
+				finishTask("import failed");
+				if (ex.getCause() instanceof FatalException) {
 					JOptionPane.showMessageDialog(mainFrame, "A fatal error occured, closing application", "Error", JOptionPane.ERROR_MESSAGE);
 					System.exit(1);
+				} else {
+					JOptionPane.showMessageDialog(mainFrame, "import failed: " + ex.getCause().getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
 				}
+			} catch (InterruptedException ex) {
+				finishTask("import interrupted");
 			}
 		}
 	}
 
-	class LoadInputListener implements ActionListener {
+	/**
+	 * Collects the waypoints that are selected for export and writes them, in
+	 * the background. The concurrent repository lets the waypoints be
+	 * collected while rows are being toggled.
+	 */
+	class ExportWorker extends TaskWorker<Void> {
+
+		private final String filePath;
+		private final boolean overwrite;
+		private volatile int total;
+		private int waypointCount;
+
+		public ExportWorker(String filePath, boolean overwrite) {
+			this.filePath = filePath;
+			this.overwrite = overwrite;
+			progressBar.setIndeterminate(true);
+			progressBar.setString("collecting waypoints to export");
+		}
 
 		@Override
-		public void actionPerformed(ActionEvent e) {
+		protected Void work() throws Exception {
+			List<Waypoint> waypoints = domainFacade.getWaypointsToExport();
+			total = waypoints.size();
+			publish(0);
+			domainFacade.exportWaypoints(filePath, waypoints, overwrite, waypoint -> {
+				if (isCancelled()) {
+					throw new ProcessingException("export cancelled");
+				}
+				if (++waypointCount % PROGRESS_STEP == 0) {
+					publish(waypointCount);
+				}
+			});
+			return null;
+		}
+
+		@Override
+		protected String cancelledMessage() {
+			return "export cancelled";
+		}
+
+		@Override
+		protected void process(List<Integer> counts) {
+			int count = counts.get(counts.size() - 1);
+			progressBar.setIndeterminate(false);
+			progressBar.setMaximum(Math.max(total, 1));
+			progressBar.setValue(count);
+			progressBar.setString(count + " of " + total + " waypoints written");
+		}
+
+		@Override
+		protected void done() {
+			if (handleCancelled()) {
+				return;
+			}
 			try {
-				domainFacade.loadFile(txtInput.getText());
-			} catch (FileException | ProcessingException ex) {
-				JOptionPane.showMessageDialog(mainFrame, "import failed: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-			} catch (FatalException ex) {
-				JOptionPane.showMessageDialog(mainFrame, "A fatal error occured, closing application", "Error", JOptionPane.ERROR_MESSAGE);
-				System.exit(1);
+				get();
+				finishTask(total + " waypoints exported");
+				JOptionPane.showMessageDialog(mainFrame, "Export completed", "Export", JOptionPane.INFORMATION_MESSAGE);
+			} catch (ExecutionException ex) {
+				finishTask("export failed");
+				if (ex.getCause() instanceof FileAlreadyExistsException) {
+					int overwriteResponse = JOptionPane.showConfirmDialog(mainFrame, ex.getCause().getMessage() + "\\Do you want to overwrite this file?", "File Exists", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
+					if (overwriteResponse == JOptionPane.OK_OPTION) {
+						startTask(new ExportWorker(filePath, true));
+					} else {
+						finishTask("export cancelled");
+						JOptionPane.showMessageDialog(mainFrame, "Export cancelled", "Export", JOptionPane.INFORMATION_MESSAGE);
+					}
+				} else {
+					JOptionPane.showMessageDialog(mainFrame, "Export Failed: " + ex.getCause().getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+				}
+			} catch (InterruptedException ex) {
+				finishTask("export interrupted");
 			}
 		}
 	}
@@ -492,24 +981,7 @@ public class GUI extends BaseUI {
 
 		@Override
 		public void actionPerformed(ActionEvent e) {
-			try {
-				domainFacade.exportWaypoints(txtOutput.getText(), false);
-				JOptionPane.showMessageDialog(mainFrame, "Export completed", "Export", JOptionPane.INFORMATION_MESSAGE);
-			} catch (FileAlreadyExistsException ex) {
-				int overwriteResponse = JOptionPane.showConfirmDialog(mainFrame, ex.getMessage() + "\\Do you want to overwrite this file?", "File Exists", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
-				if (overwriteResponse == JOptionPane.OK_OPTION) {
-					try {
-						domainFacade.exportWaypoints(txtOutput.getText(), true);
-						JOptionPane.showMessageDialog(mainFrame, "Export completed", "Export", JOptionPane.INFORMATION_MESSAGE);
-					} catch (IOException | ProcessingException ex1) {
-						JOptionPane.showMessageDialog(mainFrame, "Export Failed: " + ex1.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-					}
-				} else {
-					JOptionPane.showMessageDialog(mainFrame, "Export cancelled", "Export", JOptionPane.INFORMATION_MESSAGE);
-				}
-			} catch (IOException | ProcessingException ex) {
-				JOptionPane.showMessageDialog(mainFrame, "Export Failed: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-			}
+			startTask(new ExportWorker(txtOutput.getText(), false));
 		}
 	}
 }
\ No newline at end of file